@@ -0,0 +1,84 @@
+package com.kontinuum.benchmark;
+
+import com.kontinuum.model.BulkCompletionResult;
+import com.kontinuum.model.CompletionChange;
+import com.kontinuum.model.Objective;
+import com.kontinuum.service.CalendarProgressManager;
+import com.kontinuum.service.CategoryXpManager;
+import com.kontinuum.service.ObjectiveManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Backfilling a week for every objective: one toggle at a time (a journal write, an XP
+ * write and an index update per change) versus one {@link ObjectiveManager#applyCompletions}
+ * transaction with a single snapshot, XP write and index pass. Each invocation flips the
+ * whole week, so every change applies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkCompletionBenchmark {
+    private static final int WEEK = 7;
+
+    @Param({"10", "50"})
+    public int objectives;
+
+    private Path dataDir;
+    private ObjectiveManager manager;
+    private CategoryXpManager xpManager;
+    private CalendarProgressManager calendar;
+    private boolean completed;
+
+    @Setup
+    public void setUp() {
+        dataDir = SyntheticData.useTempDataDir();
+        manager = SyntheticData.populate(objectives, 90);
+        xpManager = new CategoryXpManager();
+        calendar = new CalendarProgressManager(manager);
+    }
+
+    @TearDown
+    public void tearDown() {
+        manager.compactJournal();
+        SyntheticData.deleteDataDir(dataDir);
+    }
+
+    @Benchmark
+    public void singleToggles() {
+        completed = !completed;
+        for (Objective objective : manager.getObjectives()) {
+            for (int d = 0; d < WEEK; d++) {
+                LocalDate date = SyntheticData.TODAY.minusDays(d);
+                if (manager.setObjectiveCompleted(objective, date, completed)) {
+                    if (completed) {
+                        xpManager.addXp(objective.getCategory(), objective.getXpReward());
+                    } else {
+                        xpManager.removeXp(objective.getCategory(), objective.getXpReward());
+                    }
+                    calendar.objectiveStateChanged(objective, date, completed);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public BulkCompletionResult bulk() {
+        completed = !completed;
+        List<CompletionChange> changes = new ArrayList<>(objectives * WEEK);
+        for (Objective objective : manager.getObjectives()) {
+            for (int d = 0; d < WEEK; d++) {
+                changes.add(new CompletionChange(objective, SyntheticData.TODAY.minusDays(d), completed));
+            }
+        }
+        BulkCompletionResult result = manager.applyCompletions(changes);
+        xpManager.applyXpDeltas(result.getXpDelta());
+        calendar.completionsChanged(result);
+        return result;
+    }
+}
@@ -0,0 +1,50 @@
+package com.kontinuum.benchmark;
+
+import com.kontinuum.model.DailyProgress;
+import com.kontinuum.model.ProgressRange;
+import com.kontinuum.service.CalendarProgressManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CalendarProgressBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int objectives;
+
+    @Param({"30", "365", "3650"})
+    public int days;
+
+    private Path dataDir;
+    private CalendarProgressManager progressManager;
+    private LocalDate weekStart;
+
+    @Setup
+    public void setUp() {
+        dataDir = SyntheticData.useTempDataDir();
+        progressManager = new CalendarProgressManager(SyntheticData.populate(objectives, days));
+        weekStart = SyntheticData.TODAY.with(DayOfWeek.MONDAY);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SyntheticData.deleteDataDir(dataDir);
+    }
+
+    @Benchmark
+    public Map<LocalDate, DailyProgress> getWeekProgress() {
+        return progressManager.getWeekProgress(weekStart);
+    }
+
+    @Benchmark
+    public ProgressRange getYearRange() {
+        return progressManager.getProgressRange(SyntheticData.TODAY.minusDays(364), SyntheticData.TODAY);
+    }
+}
@@ -0,0 +1,40 @@
+package com.kontinuum.benchmark;
+
+import com.kontinuum.model.ObjectiveCategory;
+import com.kontinuum.service.CategoryXpManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CategoryXpBenchmark {
+
+    private Path dataDir;
+    private CategoryXpManager xpManager;
+    private boolean adding;
+
+    @Setup
+    public void setUp() {
+        dataDir = SyntheticData.useTempDataDir();
+        xpManager = new CategoryXpManager();
+    }
+
+    @TearDown
+    public void tearDown() {
+        SyntheticData.deleteDataDir(dataDir);
+    }
+
+    // Alternate add/remove so XP (and the level walk) stays in the same range across iterations
+    @Benchmark
+    public CategoryXpManager.LevelUpInfo addXp() {
+        adding = !adding;
+        if (adding) {
+            return xpManager.addXp(ObjectiveCategory.HEALTH, 30);
+        }
+        xpManager.removeXp(ObjectiveCategory.HEALTH, 30);
+        return null;
+    }
+}
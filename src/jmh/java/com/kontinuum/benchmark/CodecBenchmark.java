@@ -0,0 +1,155 @@
+package com.kontinuum.benchmark;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.kontinuum.model.CompletionBitmap;
+import com.kontinuum.model.Mission;
+import com.kontinuum.model.MissionTier;
+import com.kontinuum.model.Objective;
+import com.kontinuum.model.ObjectiveCategory;
+import com.kontinuum.service.CompletionBitmapAdapter;
+import com.kontinuum.service.JsonCodecs;
+import com.kontinuum.service.LocalDateAdapter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding and encoding of objective snapshots with multi-year history and of mission lists,
+ * through the shared streaming codecs versus the reflective Gson setup they replaced
+ * (field reflection, LocalDate.parse per completion day, a new Gson per XP load).
+ * Run with {@code -prof gc} to compare allocation per operation as well as time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CodecBenchmark {
+    private static final Type OBJECTIVE_LIST = new TypeToken<List<Objective>>() {}.getType();
+    private static final Type MISSION_LIST = new TypeToken<List<Mission>>() {}.getType();
+    private static final Type XP_MAP = new TypeToken<Map<ObjectiveCategory, Integer>>() {}.getType();
+
+    private static final Gson REFLECTIVE_OBJECTIVES = new GsonBuilder()
+            .registerTypeAdapter(CompletionBitmap.class, new ParsingBitmapAdapter())
+            .create();
+    private static final Gson REFLECTIVE_MISSIONS = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+            .setPrettyPrinting()
+            .create();
+
+    @Param({"20", "100"})
+    public int objectives;
+
+    @Param({"365", "1825"})
+    public int days;
+
+    private List<Objective> objectiveList;
+    private String objectivesJson;
+    private String missionsJson;
+    private String xpJson;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        ObjectiveCategory[] categories = ObjectiveCategory.values();
+        objectiveList = new ArrayList<>(objectives);
+        for (int i = 0; i < objectives; i++) {
+            Objective objective = new Objective("Objective " + i, 10 + random.nextInt(50), categories[i % categories.length]);
+            for (int d = 0; d < days; d++) {
+                if (random.nextDouble() < 0.6) {
+                    objective.restoreCompletion(SyntheticData.TODAY.minusDays(d), true);
+                }
+            }
+            objectiveList.add(objective);
+        }
+        objectivesJson = REFLECTIVE_OBJECTIVES.toJson(objectiveList, OBJECTIVE_LIST);
+
+        List<Mission> missions = new ArrayList<>();
+        MissionTier[] tiers = MissionTier.values();
+        for (int i = 0; i < 40; i++) {
+            Mission mission = new Mission("m" + i, "Mission " + i, tiers[i % tiers.length], 50 + i,
+                    categories[i % categories.length].name(), List.of("Condition A", "Condition B"));
+            mission.timesCompleted = random.nextInt(20);
+            mission.lastCompletedDate = SyntheticData.TODAY.minusDays(random.nextInt(days));
+            missions.add(mission);
+        }
+        missionsJson = REFLECTIVE_MISSIONS.toJson(missions, MISSION_LIST);
+
+        Map<ObjectiveCategory, Integer> xp = new EnumMap<>(ObjectiveCategory.class);
+        for (ObjectiveCategory category : categories) {
+            xp.put(category, random.nextInt(100_000));
+        }
+        xpJson = new Gson().toJson(xp);
+    }
+
+    @Benchmark
+    public List<Objective> decodeObjectivesReflective() {
+        return REFLECTIVE_OBJECTIVES.fromJson(objectivesJson, OBJECTIVE_LIST);
+    }
+
+    @Benchmark
+    public List<Objective> decodeObjectivesStreaming() throws IOException {
+        return JsonCodecs.objectives().fromJson(objectivesJson);
+    }
+
+    @Benchmark
+    public String encodeObjectivesReflective() {
+        return REFLECTIVE_OBJECTIVES.toJson(objectiveList, OBJECTIVE_LIST);
+    }
+
+    @Benchmark
+    public String encodeObjectivesStreaming() {
+        return JsonCodecs.objectives().toJson(objectiveList);
+    }
+
+    @Benchmark
+    public List<Mission> decodeMissionsReflective() {
+        return REFLECTIVE_MISSIONS.fromJson(missionsJson, MISSION_LIST);
+    }
+
+    @Benchmark
+    public List<Mission> decodeMissionsStreaming() throws IOException {
+        return JsonCodecs.missions().fromJson(missionsJson);
+    }
+
+    @Benchmark
+    public Map<ObjectiveCategory, Integer> decodeXpReflective() {
+        return new Gson().fromJson(xpJson, XP_MAP);
+    }
+
+    @Benchmark
+    public Map<ObjectiveCategory, Integer> decodeXpStreaming() throws IOException {
+        return JsonCodecs.xpMap().fromJson(xpJson);
+    }
+
+    // The bitmap decoding used before the shared codecs: one LocalDate.parse per completed day
+    private static class ParsingBitmapAdapter extends TypeAdapter<CompletionBitmap> {
+        private final CompletionBitmapAdapter writer = new CompletionBitmapAdapter();
+
+        @Override
+        public void write(JsonWriter out, CompletionBitmap value) throws IOException {
+            writer.write(out, value);
+        }
+
+        @Override
+        public CompletionBitmap read(JsonReader in) throws IOException {
+            CompletionBitmap bitmap = new CompletionBitmap();
+            in.beginObject();
+            while (in.hasNext()) {
+                String key = in.nextName();
+                if (in.nextBoolean()) {
+                    bitmap.set(LocalDate.parse(key).toEpochDay(), true);
+                }
+            }
+            in.endObject();
+            return bitmap;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.kontinuum.benchmark;
+
+import com.kontinuum.AppBootstrap;
+import com.kontinuum.model.BulkCompletionResult;
+import com.kontinuum.model.CompletionChange;
+import com.kontinuum.model.Mission;
+import com.kontinuum.model.Objective;
+import com.kontinuum.model.ObjectiveCategory;
+import com.kontinuum.model.Penalty;
+import com.kontinuum.service.CategoryCompletionManager;
+import com.kontinuum.service.CategoryXpManager;
+import com.kontinuum.service.MissionManager;
+import com.kontinuum.service.ObjectiveManager;
+import com.kontinuum.service.PersistenceService;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hammers the shared services from many threads at once, the way the headless server, the
+ * persistence thread and timers do: objective toggles, bulk week changes, XP changes,
+ * mission accept/complete, penalty assign/complete and forced flushes, with readers running
+ * alongside. Afterwards it
+ * checks that no update was lost (XP balance, progress index, reloaded snapshot) and that
+ * no reader ever saw more than the allowed number of accepted missions.
+ * Not a JMH benchmark; run it with {@code ./gradlew stressTest}.
+ *
+ * <pre>
+ * --threads=8      writer threads per kind of operation
+ * --seconds=5      how long to run
+ * --objectives=40  synthetic objectives (with 90 days of history)
+ * </pre>
+ */
+public class ConcurrencyStressTest {
+    // Toggles stay within the hot months so they never touch the history archive
+    private static final int TOGGLE_DAYS = 14;
+    // Starting XP per category, far from both clamps so every add and removal counts in full
+    private static final int START_XP = 300_000;
+    private static final int MAX_ACCEPTED = 5;
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.parseInt(option(args, "threads", "8"));
+        int seconds = Integer.parseInt(option(args, "seconds", "5"));
+        int objectiveCount = Integer.parseInt(option(args, "objectives", "40"));
+
+        Path dataDir = SyntheticData.useTempDataDir();
+        SyntheticData.populate(objectiveCount, 90);
+        PersistenceService persistence = new PersistenceService();
+        AppBootstrap.Services services = AppBootstrap.load(new CategoryCompletionManager(), persistence).join();
+        try {
+            List<String> failures = run(services, threads, seconds);
+            if (failures.isEmpty()) {
+                System.out.println("PASSED");
+            } else {
+                failures.forEach(failure -> System.out.println("FAILED: " + failure));
+                System.exit(1);
+            }
+        } finally {
+            SyntheticData.deleteDataDir(dataDir);
+        }
+    }
+
+    private static List<String> run(AppBootstrap.Services services, int threads, int seconds) throws InterruptedException {
+        ObjectiveCategory[] categories = ObjectiveCategory.values();
+        for (ObjectiveCategory category : categories) {
+            services.xpManager.getTracker(category).setXp(START_XP);
+        }
+        List<Objective> objectives = services.objectiveManager.getObjectives();
+        LocalDate today = LocalDate.now();
+
+        // Net XP each category should have gained, summed over all writers
+        AtomicLongArray xpDelta = new AtomicLongArray(categories.length);
+        AtomicLong operations = new AtomicLong();
+        List<String> failures = new ArrayList<>();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            workers.add(worker("toggle", deadline, operations, failures, random -> {
+                Objective objective = objectives.get(random.nextInt(objectives.size()));
+                LocalDate date = today.minusDays(random.nextInt(TOGGLE_DAYS));
+                boolean completed = random.nextBoolean();
+                if (services.objectiveManager.setObjectiveCompleted(objective, date, completed)) {
+                    int xp = objective.getXpReward();
+                    if (completed) {
+                        services.completionManager.incrementCompletedCount(objective.getCategory());
+                        services.xpManager.addXp(objective.getCategory(), xp);
+                    } else {
+                        services.completionManager.decrementCompletedCount(objective.getCategory());
+                        services.xpManager.removeXp(objective.getCategory(), xp);
+                    }
+                    xpDelta.addAndGet(objective.getCategory().ordinal(), completed ? xp : -xp);
+                    services.calendarProgressManager.objectiveStateChanged(objective, date, completed);
+                }
+            }));
+            workers.add(worker("bulk", deadline, operations, failures, random -> {
+                // A random week for a few objectives, applied as one transaction
+                List<CompletionChange> changes = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                    Objective objective = objectives.get(random.nextInt(objectives.size()));
+                    for (int d = 0; d < 7; d++) {
+                        changes.add(new CompletionChange(objective, today.minusDays(d), random.nextBoolean()));
+                    }
+                }
+                BulkCompletionResult result = services.objectiveManager.applyCompletions(changes);
+                services.xpManager.applyXpDeltas(result.getXpDelta());
+                result.getXpDelta().forEach((category, delta) -> xpDelta.addAndGet(category.ordinal(), delta));
+                services.calendarProgressManager.completionsChanged(result);
+            }));
+            workers.add(worker("xp", deadline, operations, failures, random -> {
+                ObjectiveCategory category = categories[random.nextInt(categories.length)];
+                int xp = 1 + random.nextInt(100);
+                if (random.nextBoolean()) {
+                    services.xpManager.addXp(category, xp);
+                    xpDelta.addAndGet(category.ordinal(), xp);
+                } else {
+                    services.xpManager.removeXp(category, xp);
+                    xpDelta.addAndGet(category.ordinal(), -xp);
+                }
+            }));
+            workers.add(worker("missions", deadline, operations, failures, random -> {
+                MissionManager missions = services.missionManager;
+                List<Mission> board = missions.getAllMissions();
+                Mission mission = board.get(random.nextInt(board.size()));
+                switch (random.nextInt(3)) {
+                    case 0 -> missions.acceptMission(mission);
+                    case 1 -> missions.unacceptMission(mission);
+                    default -> missions.completeMission(mission);
+                }
+            }));
+            int writer = t;
+            workers.add(worker("penalties", deadline, operations, failures, random -> {
+                String id = "stress-" + writer + "-" + random.nextInt(4);
+                Penalty.Type type = Penalty.Type.values()[random.nextInt(Penalty.Type.values().length)];
+                if (random.nextBoolean()) {
+                    services.penaltyService.assignPenalty(id, type, today);
+                } else {
+                    services.penaltyService.completePenalty(id);
+                }
+            }));
+        }
+        workers.add(worker("flush", deadline, operations, failures, random -> {
+            services.persistenceService.flush();
+            Thread.sleep(5);
+        }));
+        workers.add(worker("reader", deadline, operations, failures, random -> {
+            long accepted = services.missionManager.getAllMissions().stream().filter(m -> m.isAccepted).count();
+            if (accepted > MAX_ACCEPTED) {
+                throw new IllegalStateException(accepted + " missions accepted at once");
+            }
+            services.calendarProgressManager.getProgressRange(today.minusDays(TOGGLE_DAYS), today);
+            services.penaltyService.getActivePenalties();
+            services.xpManager.getTotalXp();
+        }));
+
+        System.out.println("Running " + workers.size() + " threads for " + seconds + " s...");
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        System.out.println("operations=" + operations.get());
+
+        for (ObjectiveCategory category : categories) {
+            long expected = START_XP + xpDelta.get(category.ordinal());
+            int actual = services.xpManager.getTracker(category).getXp();
+            if (actual != expected) {
+                failures.add(category + " XP is " + actual + ", expected " + expected);
+            }
+        }
+        List<LocalDate> mismatches = services.calendarProgressManager
+                .checkIndexConsistency(today.minusDays(TOGGLE_DAYS), today);
+        if (!mismatches.isEmpty()) {
+            failures.add("progress index wrong on " + mismatches);
+        }
+
+        services.objectiveManager.compactJournal();
+        services.persistenceService.shutdown();
+        checkReload(services, today, failures);
+        return failures;
+    }
+
+    // Everything written concurrently must read back exactly as it is in memory
+    private static void checkReload(AppBootstrap.Services services, LocalDate today, List<String> failures) {
+        ObjectiveManager reloaded = new ObjectiveManager(null);
+        reloaded.loadObjectives();
+        List<Objective> before = services.objectiveManager.getObjectives();
+        List<Objective> after = reloaded.getObjectives();
+        if (before.size() != after.size()) {
+            failures.add("reloaded " + after.size() + " objectives, expected " + before.size());
+            return;
+        }
+        for (int i = 0; i < before.size(); i++) {
+            for (int d = 0; d < TOGGLE_DAYS; d++) {
+                LocalDate date = today.minusDays(d);
+                if (before.get(i).isCompleted(date) != after.get(i).isCompleted(date)) {
+                    failures.add("objective " + before.get(i).getId() + " on " + date + " did not survive reload");
+                }
+            }
+        }
+
+        CategoryXpManager xp = new CategoryXpManager();
+        Map<ObjectiveCategory, Integer> expectedXp = new EnumMap<>(ObjectiveCategory.class);
+        for (ObjectiveCategory category : ObjectiveCategory.values()) {
+            expectedXp.put(category, services.xpManager.getTracker(category).getXp());
+            if (xp.getTracker(category).getXp() != expectedXp.get(category)) {
+                failures.add("reloaded " + category + " XP is " + xp.getTracker(category).getXp()
+                        + ", expected " + expectedXp.get(category));
+            }
+        }
+
+        long accepted = new MissionManager().getAllMissions().stream().filter(m -> m.isAccepted).count();
+        long acceptedBefore = services.missionManager.getAllMissions().stream().filter(m -> m.isAccepted).count();
+        if (accepted != acceptedBefore || accepted > MAX_ACCEPTED) {
+            failures.add("reloaded " + accepted + " accepted missions, expected " + acceptedBefore);
+        }
+    }
+
+    private interface Operation {
+        void run(ThreadLocalRandom random) throws Exception;
+    }
+
+    // Repeats the operation until the deadline; the first exception is recorded as a failure
+    private static Thread worker(String name, long deadline, AtomicLong operations, List<String> failures,
+                                 Operation operation) {
+        return Thread.ofPlatform().name("stress-" + name).start(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            try {
+                while (System.nanoTime() < deadline) {
+                    operation.run(random);
+                    operations.incrementAndGet();
+                }
+            } catch (Exception e) {
+                e.printStackTrace();
+                synchronized (failures) {
+                    failures.add(Thread.currentThread().getName() + " threw " + e);
+                }
+            }
+        });
+    }
+
+    private static String option(String[] args, String name, String fallback) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) return arg.substring(prefix.length());
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,90 @@
+package com.kontinuum.benchmark;
+
+import com.kontinuum.model.Objective;
+import com.kontinuum.model.PenaltyService;
+import com.kontinuum.service.CalendarProgressManager;
+import com.kontinuum.service.CategoryXpManager;
+import com.kontinuum.service.CompletionArchive;
+import com.kontinuum.service.ExportFormat;
+import com.kontinuum.service.HistoryExporter;
+import com.kontinuum.service.HistoryImporter;
+import com.kontinuum.service.MissionManager;
+import com.kontinuum.service.ObjectiveManager;
+import com.kontinuum.service.TransferSummary;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of ten years of history: exporting it (archived years plus the hot months) and
+ * importing the files back into objectives with no history, through the batched bulk path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HistoryTransferBenchmark {
+    private static final int DAYS = 3650;
+
+    @Param({"CSV", "NDJSON"})
+    public ExportFormat format;
+
+    @Param({"50"})
+    public int objectives;
+
+    private Path dataDir;
+    private Path exportDir;
+    private ObjectiveManager manager;
+    private HistoryExporter exporter;
+    private HistoryImporter importer;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataDir = SyntheticData.useTempDataDir();
+        SyntheticData.populate(objectives, DAYS);
+        // Loading moves everything before the hot months into the yearly archives, as in the app
+        Objective.setHistoryArchive(CompletionArchive.openDefault());
+        manager = new ObjectiveManager(null);
+        manager.loadObjectives();
+
+        PenaltyService penalties = new PenaltyService(manager);
+        CategoryXpManager xp = new CategoryXpManager();
+        MissionManager missions = new MissionManager();
+        exporter = new HistoryExporter(manager, xp, missions, penalties);
+        importer = new HistoryImporter(manager, xp, new CalendarProgressManager(manager), missions, penalties);
+
+        exportDir = dataDir.resolve("export");
+        exporter.export(exportDir, format);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Objective.setHistoryArchive(null);
+        SyntheticData.deleteDataDir(dataDir);
+    }
+
+    // Objectives with the same ids but no history, so every imported day applies
+    @State(Scope.Benchmark)
+    public static class EmptyHistory {
+        @Setup(Level.Invocation)
+        public void clear(HistoryTransferBenchmark benchmark) throws IOException {
+            benchmark.manager.resetObjectives();
+            CompletionArchive archive = new CompletionArchive(Files.createTempDirectory(benchmark.dataDir, "history"));
+            archive.compact(benchmark.manager.getObjectives(), CompletionArchive.hotStart(LocalDate.now()));
+            Objective.setHistoryArchive(archive);
+        }
+    }
+
+    @Benchmark
+    public TransferSummary exportHistory() throws IOException {
+        return exporter.export(dataDir.resolve("out"), format);
+    }
+
+    @Benchmark
+    public TransferSummary importHistory(EmptyHistory empty) throws IOException {
+        return importer.importFrom(exportDir, format);
+    }
+}
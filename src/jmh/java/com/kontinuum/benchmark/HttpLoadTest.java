@@ -0,0 +1,183 @@
+package com.kontinuum.benchmark;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.kontinuum.server.HeadlessServer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load test for the headless API: each client sends a request, waits for the
+ * answer and sends the next, mixing objective reads with completion toggles. Prints
+ * throughput and latency percentiles for reads and writes separately.
+ * Not a JMH benchmark (JMH can't drive a server); run it with {@code ./gradlew loadTest}.
+ *
+ * <pre>
+ * --url=http://localhost:8765   test a running server instead of starting one on a temp data dir
+ * --clients=64                  concurrent clients, each on its own virtual thread
+ * --seconds=10                  measured duration, after --warmup=3 seconds
+ * --writes=0.2                  fraction of requests that toggle a completion
+ * --objectives=50 --days=365    synthetic data for the in-process server
+ * </pre>
+ */
+public class HttpLoadTest {
+
+    // Latencies of one client, in nanoseconds
+    private static class Recorder {
+        long[] reads = new long[1024];
+        long[] writes = new long[1024];
+        int readCount;
+        int writeCount;
+
+        void record(boolean write, long nanos) {
+            if (write) {
+                if (writeCount == writes.length) writes = Arrays.copyOf(writes, writeCount * 2);
+                writes[writeCount++] = nanos;
+            } else {
+                if (readCount == reads.length) reads = Arrays.copyOf(reads, readCount * 2);
+                reads[readCount++] = nanos;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = option(args, "url", null);
+        int clients = Integer.parseInt(option(args, "clients", "64"));
+        int seconds = Integer.parseInt(option(args, "seconds", "10"));
+        int warmup = Integer.parseInt(option(args, "warmup", "3"));
+        double writeRatio = Double.parseDouble(option(args, "writes", "0.2"));
+
+        Path dataDir = null;
+        HeadlessServer server = null;
+        if (url == null) {
+            dataDir = SyntheticData.useTempDataDir();
+            SyntheticData.populate(Integer.parseInt(option(args, "objectives", "50")),
+                    Integer.parseInt(option(args, "days", "365")));
+            server = HeadlessServer.launch(0);
+            url = "http://localhost:" + server.getPort();
+        }
+
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(workers)
+                .build();
+        try {
+            List<String> ids = objectiveIds(http, url);
+            if (ids.isEmpty()) {
+                throw new IllegalStateException("Server has no objectives to toggle");
+            }
+
+            System.out.println("Warming up for " + warmup + " s...");
+            run(http, url, ids, clients, warmup, writeRatio, new ArrayList<>());
+            System.out.println("Measuring " + clients + " clients for " + seconds + " s against " + url);
+            long begin = System.nanoTime();
+            List<Recorder> recorders = new ArrayList<>();
+            AtomicLong errors = run(http, url, ids, clients, seconds, writeRatio, recorders);
+            double elapsed = (System.nanoTime() - begin) / 1e9;
+
+            long total = recorders.stream().mapToLong(r -> r.readCount + r.writeCount).sum();
+            System.out.printf("requests=%d errors=%d throughput=%.0f req/s%n", total, errors.get(), total / elapsed);
+            report("read ", merge(recorders, false));
+            report("write", merge(recorders, true));
+        } finally {
+            workers.shutdownNow();
+            if (server != null) {
+                server.stop();
+                SyntheticData.deleteDataDir(dataDir);
+            }
+        }
+    }
+
+    private static AtomicLong run(HttpClient http, String url, List<String> ids, int clients, int seconds,
+                                  double writeRatio, List<Recorder> recorders)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong errors = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            Recorder recorder = new Recorder();
+            recorders.add(recorder);
+            threads.add(Thread.ofVirtual().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    boolean write = random.nextDouble() < writeRatio;
+                    HttpRequest request = write
+                            ? HttpRequest.newBuilder(URI.create(url + "/objectives/" + ids.get(random.nextInt(ids.size())) + "/completion"))
+                                    .header("Content-Type", "application/json")
+                                    .PUT(HttpRequest.BodyPublishers.ofString("{\"completed\": " + random.nextBoolean() + "}"))
+                                    .build()
+                            : HttpRequest.newBuilder(URI.create(url + "/objectives")).GET().build();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                        // 409 means the penalty lock is on, which is still a served request
+                        if (response.statusCode() != 200 && response.statusCode() != 409) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                        continue;
+                    }
+                    recorder.record(write, System.nanoTime() - start);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return errors;
+    }
+
+    private static List<String> objectiveIds(HttpClient http, String url) throws Exception {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(url + "/objectives")).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        List<String> ids = new ArrayList<>();
+        for (JsonElement objective : JsonParser.parseString(response.body()).getAsJsonObject().getAsJsonArray("objectives")) {
+            ids.add(objective.getAsJsonObject().get("id").getAsString());
+        }
+        return ids;
+    }
+
+    private static long[] merge(List<Recorder> recorders, boolean writes) {
+        long[] all = recorders.stream()
+                .flatMapToLong(r -> Arrays.stream(writes ? r.writes : r.reads, 0, writes ? r.writeCount : r.readCount))
+                .toArray();
+        Arrays.sort(all);
+        return all;
+    }
+
+    private static void report(String label, long[] sorted) {
+        if (sorted.length == 0) {
+            System.out.println(label + ": no requests");
+            return;
+        }
+        System.out.printf("%s: n=%d p50=%.2f ms p90=%.2f ms p99=%.2f ms p99.9=%.2f ms max=%.2f ms%n", label, sorted.length,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static String option(String[] args, String name, String fallback) {
+        String prefix = "--" + name + "=";
+        for (String arg : args) {
+            if (arg.startsWith(prefix)) return arg.substring(prefix.length());
+        }
+        return fallback;
+    }
+}
@@ -0,0 +1,43 @@
+package com.kontinuum.benchmark;
+
+import com.kontinuum.model.Mission;
+import com.kontinuum.service.MissionManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MissionGenerationBenchmark {
+
+    @Param({"1", "50", "100"})
+    public int playerLevel;
+
+    private Path dataDir;
+    private MissionManager missionManager;
+    private LocalDate day;
+
+    @Setup
+    public void setUp() {
+        dataDir = SyntheticData.useTempDataDir();
+        missionManager = new MissionManager();
+        day = SyntheticData.TODAY;
+    }
+
+    @TearDown
+    public void tearDown() {
+        SyntheticData.deleteDataDir(dataDir);
+    }
+
+    // A new day on every call, so each invocation regenerates the board
+    @Benchmark
+    public List<Mission> generateDailyMissions() {
+        day = day.plusDays(1);
+        missionManager.generateDailyMissions(playerLevel, day);
+        return missionManager.getAllMissions();
+    }
+}
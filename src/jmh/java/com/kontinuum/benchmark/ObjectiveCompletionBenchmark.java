@@ -0,0 +1,55 @@
+package com.kontinuum.benchmark;
+
+import com.kontinuum.model.Objective;
+import com.kontinuum.service.ObjectiveManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ObjectiveCompletionBenchmark {
+
+    @Param({"30", "365", "3650"})
+    public int days;
+
+    private Path dataDir;
+    private Objective objective;
+    private LocalDate[] dates;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        dataDir = SyntheticData.useTempDataDir();
+        ObjectiveManager manager = SyntheticData.populate(1, days);
+        objective = manager.getObjectives().get(0);
+        dates = new LocalDate[days];
+        for (int d = 0; d < days; d++) {
+            dates[d] = SyntheticData.TODAY.minusDays(d);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        SyntheticData.deleteDataDir(dataDir);
+    }
+
+    private LocalDate nextDate() {
+        cursor = cursor + 1 == dates.length ? 0 : cursor + 1;
+        return dates[cursor];
+    }
+
+    @Benchmark
+    public boolean isCompleted() {
+        return objective.isCompleted(nextDate());
+    }
+
+    @Benchmark
+    public void setCompleted() {
+        LocalDate date = nextDate();
+        objective.setCompleted(date, !objective.isCompleted(date));
+    }
+}
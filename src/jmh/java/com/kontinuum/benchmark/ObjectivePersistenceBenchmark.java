@@ -0,0 +1,57 @@
+package com.kontinuum.benchmark;
+
+import com.kontinuum.model.Objective;
+import com.kontinuum.service.CompletionArchive;
+import com.kontinuum.service.ObjectiveManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ObjectivePersistenceBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int objectives;
+
+    @Param({"30", "365", "3650"})
+    public int days;
+
+    // With the history archive, days older than the hot months are moved out of the snapshot
+    @Param({"false", "true"})
+    public boolean archived;
+
+    private Path dataDir;
+    private ObjectiveManager manager;
+
+    @Setup
+    public void setUp() {
+        dataDir = SyntheticData.useTempDataDir();
+        Objective.setHistoryArchive(null);
+        manager = SyntheticData.populate(objectives, days);
+        if (archived) {
+            Objective.setHistoryArchive(CompletionArchive.openDefault());
+            manager.loadObjectives();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        Objective.setHistoryArchive(null);
+        SyntheticData.deleteDataDir(dataDir);
+    }
+
+    @Benchmark
+    public ObjectiveManager loadObjectives() {
+        ObjectiveManager fresh = new ObjectiveManager(null);
+        fresh.loadObjectives();
+        return fresh;
+    }
+
+    @Benchmark
+    public void saveObjectives() {
+        manager.saveObjectives();
+    }
+}
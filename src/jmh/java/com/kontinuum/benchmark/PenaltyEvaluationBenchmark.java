@@ -0,0 +1,54 @@
+package com.kontinuum.benchmark;
+
+import com.kontinuum.model.DailyProgress;
+import com.kontinuum.model.Penalty;
+import com.kontinuum.model.PenaltyService;
+import com.kontinuum.service.ObjectiveManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PenaltyEvaluationBenchmark {
+
+    @Param({"10", "100"})
+    public int objectives;
+
+    @Param({"0", "3"})
+    public int missed;
+
+    private Path dataDir;
+    private ObjectiveManager objectiveManager;
+    private PenaltyService penaltyService;
+    private LocalDate day;
+
+    @Setup
+    public void setUp() {
+        dataDir = SyntheticData.useTempDataDir();
+        objectiveManager = SyntheticData.populate(objectives, 30);
+    }
+
+    // Active penalties pile up as days are evaluated, so start each iteration from scratch
+    @Setup(Level.Iteration)
+    public void freshService() {
+        penaltyService = new PenaltyService(objectiveManager);
+        day = SyntheticData.TODAY;
+    }
+
+    @TearDown
+    public void tearDown() {
+        SyntheticData.deleteDataDir(dataDir);
+    }
+
+    @Benchmark
+    public List<Penalty> evaluateDailyPenalty() {
+        day = day.plusDays(1);
+        DailyProgress progress = new DailyProgress(day.minusDays(1), objectives - missed, objectives);
+        return penaltyService.evaluateDailyPenalty(progress, day);
+    }
+}
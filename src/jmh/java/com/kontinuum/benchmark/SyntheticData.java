@@ -0,0 +1,71 @@
+package com.kontinuum.benchmark;
+
+import com.kontinuum.model.Objective;
+import com.kontinuum.model.ObjectiveCategory;
+import com.kontinuum.service.DataPaths;
+import com.kontinuum.service.ObjectiveManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Builds reproducible objective sets with a given amount of completion history
+ * inside a throwaway data directory.
+ */
+final class SyntheticData {
+    static final LocalDate TODAY = LocalDate.of(2025, 7, 21);
+    // Roughly how often a synthetic objective is completed on a given day
+    private static final double COMPLETION_RATE = 0.6;
+
+    private SyntheticData() {}
+
+    static Path useTempDataDir() {
+        try {
+            Path dir = Files.createTempDirectory("kontinuum-bench");
+            DataPaths.setDataDir(dir);
+            return dir;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void deleteDataDir(Path dir) {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Replaces the manager's objectives with {@code objectives} synthetic ones, each with
+     * {@code days} of history ending at {@link #TODAY}, and writes them as the snapshot.
+     */
+    static ObjectiveManager populate(int objectives, int days) {
+        ObjectiveManager manager = new ObjectiveManager(null);
+        manager.loadObjectives();
+
+        List<Objective> list = manager.getObjectives();
+        list.clear();
+        Random random = new Random(42);
+        ObjectiveCategory[] categories = ObjectiveCategory.values();
+        for (int i = 0; i < objectives; i++) {
+            Objective objective = new Objective("Objective " + i, 10 + random.nextInt(50), categories[i % categories.length]);
+            for (int d = 0; d < days; d++) {
+                if (random.nextDouble() < COMPLETION_RATE) {
+                    objective.restoreCompletion(TODAY.minusDays(d), true);
+                }
+            }
+            list.add(objective);
+        }
+        manager.saveObjectives();
+        return manager;
+    }
+}
@@ -0,0 +1,48 @@
+package com.kontinuum.benchmark;
+
+import com.kontinuum.model.TableXpCurve;
+import com.kontinuum.model.XpCurve;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Level lookup cost at increasing XP. The table curve should stay flat across the
+ * parameter range while the old level-by-level walk grows with the level reached.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class XpCurveBenchmark {
+
+    @Param({"0", "1000", "50000", "600000"})
+    public int xp;
+
+    private XpCurve curve;
+
+    @Setup
+    public void setUp() {
+        curve = TableXpCurve.power(100, 1.5, 600_000);
+    }
+
+    @Benchmark
+    public int tableLevelForXp() {
+        return curve.levelForXp(xp);
+    }
+
+    @Benchmark
+    public int tableXpToNextLevel() {
+        int level = curve.levelForXp(xp);
+        return curve.xpForLevel(level + 1) - xp;
+    }
+
+    // The pre-table implementation from CategoryXpManager, kept here as the baseline
+    @Benchmark
+    public int legacyLevelForXp() {
+        int level = 1;
+        while (xp >= (int) Math.round(100 * Math.pow(level, 1.5))) {
+            level++;
+        }
+        return level;
+    }
+}
@@ -0,0 +1,151 @@
+package com.kontinuum;
+
+import com.kontinuum.event.EventBus;
+import com.kontinuum.metrics.MetricsRegistry;
+import com.kontinuum.model.Objective;
+import com.kontinuum.model.PenaltyEvaluationResult;
+import com.kontinuum.model.PenaltyService;
+import com.kontinuum.service.CalendarProgressManager;
+import com.kontinuum.service.CategoryCompletionManager;
+import com.kontinuum.service.CategoryXpManager;
+import com.kontinuum.service.CompletionArchive;
+import com.kontinuum.service.DataFileStore;
+import com.kontinuum.service.MissionManager;
+import com.kontinuum.service.ObjectiveManager;
+import com.kontinuum.service.PersistenceService;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Loads and wires the services behind both front ends (the JavaFX window and the headless
+ * server). Nothing here touches the UI.
+ */
+public final class AppBootstrap {
+
+    // Everything the front ends need, produced off the FX thread by load()
+    public static class Services {
+        public final CategoryCompletionManager completionManager;
+        public final PersistenceService persistenceService;
+        public final CategoryXpManager xpManager;
+        public final PenaltyService penaltyService;
+        public final ObjectiveManager objectiveManager;
+        public final MissionManager missionManager;
+        public final CalendarProgressManager calendarProgressManager;
+        public final EventBus eventBus;
+
+        Services(CategoryCompletionManager completionManager, PersistenceService persistenceService,
+                 CategoryXpManager xpManager, PenaltyService penaltyService, ObjectiveManager objectiveManager,
+                 MissionManager missionManager, CalendarProgressManager calendarProgressManager, EventBus eventBus) {
+            this.completionManager = completionManager;
+            this.persistenceService = persistenceService;
+            this.xpManager = xpManager;
+            this.penaltyService = penaltyService;
+            this.objectiveManager = objectiveManager;
+            this.missionManager = missionManager;
+            this.calendarProgressManager = calendarProgressManager;
+            this.eventBus = eventBus;
+        }
+    }
+
+    private AppBootstrap() {}
+
+    // For front ends without a UI thread
+    public static CompletableFuture<Services> load(CategoryCompletionManager completionManager,
+                                                   PersistenceService persistenceService) {
+        return load(completionManager, persistenceService, EventBus.direct());
+    }
+
+    /**
+     * Loads the stores in parallel on virtual threads, then does the work that needs all of
+     * them (penalty evaluation, progress index, mission generation). Every service publishes
+     * its changes on {@code eventBus}; the metrics registry is exposed over JMX.
+     */
+    public static CompletableFuture<Services> load(CategoryCompletionManager completionManager,
+                                                   PersistenceService persistenceService, EventBus eventBus) {
+        ExecutorService loader = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("kontinuum-startup-", 0).factory());
+
+        // Starting the platform MBean server takes a while; nothing below waits for it
+        loader.execute(() -> timed("jmx", () -> {
+            MetricsRegistry.getDefault().exposeOverJmx();
+            return null;
+        }));
+
+        // Read the data file once up front so each load below only decodes its own section
+        CompletableFuture<DataFileStore> dataFile =
+                CompletableFuture.supplyAsync(() -> timed("data file", DataFileStore::getDefault), loader);
+
+        CompletableFuture<CategoryXpManager> xp = dataFile.thenApplyAsync(store -> timed("xp", () -> {
+            CategoryXpManager manager = new CategoryXpManager();
+            manager.setCompletionManager(completionManager);
+            manager.setPersistenceService(persistenceService);
+            manager.setEventBus(eventBus);
+            return manager;
+        }), loader);
+
+        CompletableFuture<PenaltyService> penalties = dataFile.thenApplyAsync(store -> timed("penalties", () -> {
+            PenaltyService service = new PenaltyService(null); // objective manager is injected below
+            service.setPersistenceService(persistenceService);
+            service.setEventBus(eventBus);
+            return service;
+        }), loader);
+
+        // The objective manager and the penalty service reference each other, so it waits for penalties
+        CompletableFuture<ObjectiveManager> objectives = penalties.thenApplyAsync(service -> timed("objectives", () -> {
+            ObjectiveManager manager = new ObjectiveManager(service);
+            service.setObjectiveManager(manager);
+            Objective.setPenaltyService(service);
+            CompletionArchive archive = CompletionArchive.openDefault();
+            archive.setPersistenceService(persistenceService);
+            Objective.setHistoryArchive(archive);
+            manager.setPersistenceService(persistenceService);
+            manager.setEventBus(eventBus);
+            manager.loadObjectives();
+            return manager;
+        }), loader);
+
+        CompletableFuture<MissionManager> missions = dataFile.thenApplyAsync(store -> timed("missions", () -> {
+            MissionManager manager = new MissionManager();
+            manager.setPersistenceService(persistenceService);
+            manager.setEventBus(eventBus);
+            return manager;
+        }), loader);
+
+        return CompletableFuture.allOf(xp, objectives, missions).thenApplyAsync(v -> {
+            PenaltyService service = penalties.join();
+            ObjectiveManager objectiveManager = objectives.join();
+            MissionManager missionManager = missions.join();
+            CategoryXpManager xpManager = xp.join();
+
+            // Catches up on every day since the last run; marks today as evaluated, so no separate pass for today
+            PenaltyEvaluationResult evaluation = timed("penalty evaluation", () -> service.evaluateMissedDays(LocalDate.now()));
+            System.out.println("[startup] penalty evaluation: " + evaluation);
+            CalendarProgressManager calendar = timed("progress index", () -> new CalendarProgressManager(objectiveManager));
+            timed("mission generation", () -> {
+                missionManager.generateDailyMissions(xpManager.getTotalLevelCapped());
+                return null;
+            });
+            return new Services(completionManager, persistenceService, xpManager, service, objectiveManager,
+                    missionManager, calendar, eventBus);
+        }, loader).whenComplete((data, error) -> loader.shutdown());
+    }
+
+    static <T> T timed(String phase, Supplier<T> task) {
+        long begin = System.nanoTime();
+        T result = task.get();
+        logPhase(phase, begin);
+        return result;
+    }
+
+    static void logPhase(String phase, long beginNanos) {
+        System.out.println("[startup] " + phase + ": " + elapsedMillis(beginNanos) + " ms ("
+                + Thread.currentThread().getName() + ")");
+    }
+
+    static long elapsedMillis(long beginNanos) {
+        return (System.nanoTime() - beginNanos) / 1_000_000;
+    }
+}
@@ -1,45 +1,61 @@
 package com.kontinuum;
 
+import com.kontinuum.event.DomainEvent;
+import com.kontinuum.event.EventBus;
+import com.kontinuum.jfr.FlightRecording;
+import com.kontinuum.jfr.UiRebuildEvent;
+import com.kontinuum.metrics.MetricsRegistry;
+import com.kontinuum.metrics.Timer;
 import com.kontinuum.model.Objective;
 import com.kontinuum.model.ObjectiveCategory;
 import com.kontinuum.model.Penalty;
 import com.kontinuum.model.PenaltyService;
+import com.kontinuum.server.HeadlessServer;
 import com.kontinuum.service.CategoryCompletionManager;
 import com.kontinuum.service.CategoryXpManager;
+import com.kontinuum.service.ExportFormat;
+import com.kontinuum.service.HistoryExporter;
+import com.kontinuum.service.HistoryImporter;
 import com.kontinuum.service.MissionManager;
 import com.kontinuum.service.ObjectiveManager;
+import com.kontinuum.service.PersistenceService;
+import com.kontinuum.service.TransferSummary;
 import com.kontinuum.service.CalendarProgressManager;
 import com.kontinuum.ui.CalendarTopBar;
 import com.kontinuum.ui.LevelUpPopup;
 import com.kontinuum.ui.MissionBoardScreen;
+import com.kontinuum.ui.ObjectiveListCell;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.Stage;
 
+import java.io.File;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 
 public class MainApp extends Application {
 
     private final CategoryCompletionManager completionManager = new CategoryCompletionManager();
-    private final CategoryXpManager xpManager = new CategoryXpManager();
-    private final PenaltyService penaltyService;
-    private final ObjectiveManager objectiveManager;
-
-    {
-        // Delayed dependency injection to avoid circular constructor dependency
-        penaltyService = new PenaltyService(null); // temp null
-        objectiveManager = new ObjectiveManager(penaltyService);
-        penaltyService.setObjectiveManager(objectiveManager); // now inject properly
-
-        // Inject completionManager into xpManager (assuming you have this method)
-        xpManager.setCompletionManager(completionManager);
-    }
+    private final PersistenceService persistenceService = new PersistenceService();
+    // UI subscribers get one coalesced delivery per burst of changes, on the FX thread
+    private final EventBus eventBus = new EventBus(Platform::runLater);
+
+    // Loaded in the background by bootstrap() and assigned on the FX thread once everything is ready
+    private CategoryXpManager xpManager;
+    private PenaltyService penaltyService;
+    private ObjectiveManager objectiveManager;
 
-    private final VBox objectivesList = new VBox(10);
+    // Virtualized: only the visible rows have cells, and they are re-bound rather than rebuilt
+    private final ListView<Objective> objectivesView = new ListView<>();
 
     private final Label totalXpLabel = new Label();
     private final Label prodLabel = new Label();
@@ -49,32 +65,59 @@ public class MainApp extends Application {
     private VBox penaltiesBox = new VBox(5);
     private Button viewPenaltiesButton;
 
+    private static final int HISTORY_PAGE_SIZE = 20;
+    private static final Timer UPDATE_OBJECTIVES_TIME = MetricsRegistry.getDefault().timer("ui.updateObjectives");
+
     private LocalDate selectedDate = LocalDate.now();
     private CalendarProgressManager calendarProgressManager;
     private MissionManager missionManager;
 
     @Override
     public void start(Stage stage) {
-        Objective.setPenaltyService(penaltyService);
-        xpManager.setCompletionManager(completionManager);
+        long startupBegin = System.nanoTime();
+        // Safety net for exits that bypass stop(), e.g. Ctrl+C; shutdown() only runs once
+        Runtime.getRuntime().addShutdownHook(new Thread(persistenceService::shutdown, "kontinuum-persistence-flush"));
 
-        objectiveManager.loadObjectives();
-        initializeCompletionManager();
+        // Show the window right away; the tabs get their real content once the data is loaded
+        Label loadingLabel = new Label("Loading your progress...");
+        VBox placeholder = new VBox(10, new ProgressIndicator(), loadingLabel);
+        placeholder.setAlignment(Pos.CENTER);
 
+        TabPane tabPane = new TabPane();
+        Tab progressTab = new Tab("Progress", placeholder);
+        Tab missionsTab = new Tab("Missions", new StackPane(new Label("Loading missions...")));
 
-        // Evaluate penalties for yesterday's incomplete objectives (important)
-        penaltyService.evaluateYesterdayPenalties();
+        progressTab.setClosable(false);
+        missionsTab.setClosable(false);
 
-        calendarProgressManager = new CalendarProgressManager(objectiveManager);
+        tabPane.getTabs().addAll(progressTab, missionsTab);
 
-        missionManager = new MissionManager();
-        int playerLevel = xpManager.getTotalLevelCapped();
-        missionManager.generateDailyMissions(playerLevel);
+        Scene scene = new Scene(tabPane, 1000, 700);
+        stage.setScene(scene);
+        stage.setTitle("Kontinuum Tracker");
+        stage.show();
+        AppBootstrap.logPhase("window shown", startupBegin);
 
-        // Evaluate today's penalties as well (optional, depending on your design)
-        penaltyService.evaluateTodayPenalties();
+        AppBootstrap.load(completionManager, persistenceService, eventBus).whenComplete((data, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                error.printStackTrace();
+                loadingLabel.setText("Could not load your data: " + error.getMessage());
+                return;
+            }
+            bindUi(data, progressTab, missionsTab);
+            AppBootstrap.logPhase("UI bound", startupBegin);
+            System.out.println("[startup] total: " + AppBootstrap.elapsedMillis(startupBegin) + " ms");
+        }));
+    }
 
-        CalendarTopBar calendarTopBar = new CalendarTopBar(calendarProgressManager);
+    private void bindUi(AppBootstrap.Services data, Tab progressTab, Tab missionsTab) {
+        xpManager = data.xpManager;
+        penaltyService = data.penaltyService;
+        objectiveManager = data.objectiveManager;
+        missionManager = data.missionManager;
+        calendarProgressManager = data.calendarProgressManager;
+
+        CalendarTopBar calendarTopBar = new CalendarTopBar(calendarProgressManager, eventBus);
         calendarTopBar.setOnDateSelectedListener(date -> {
             selectedDate = date;
             updateObjectives();
@@ -84,45 +127,44 @@ public class MainApp extends Application {
         updateObjectives();
         updateXpLabels();
         updatePenaltiesSummary();
+        // Also covers penalties going overdue on the background timer
+        eventBus.subscribe(DomainEvent.PenaltyEvent.class, changes -> updatePenaltiesSummary());
+        eventBus.subscribe(DomainEvent.XpChanged.class, changes -> updateXpLabels());
 
         VBox statsBox = createStatsPanel();
         VBox controlsBox = createXpButtons();
         VBox penaltiesPanel = createPenaltiesPanel();
+        VBox transferPanel = createTransferPanel();
 
-        VBox rightPanel = new VBox(20, statsBox, controlsBox, penaltiesPanel);
+        VBox rightPanel = new VBox(20, statsBox, controlsBox, penaltiesPanel, transferPanel);
         rightPanel.setAlignment(Pos.TOP_CENTER);
         rightPanel.setPadding(new Insets(15));
         rightPanel.setStyle("-fx-background-color: #f2f2f2; -fx-border-color: #cccccc; -fx-border-width: 1px;");
 
-        ScrollPane scrollPane = new ScrollPane(objectivesList);
-        scrollPane.setFitToWidth(true);
-        scrollPane.setStyle("-fx-background: white;");
+        // The view holds its own list; it is refilled whenever the manager's list changes
+        objectivesView.setItems(FXCollections.observableArrayList(objectiveManager.getObjectives()));
+        eventBus.subscribe(DomainEvent.ObjectivesChanged.class, changes -> {
+            objectivesView.getItems().setAll(objectiveManager.getObjectives());
+            updateObjectives();
+        });
+        objectivesView.setCellFactory(view -> new ObjectiveListCell(() -> selectedDate, this::toggleObjective));
+        objectivesView.setFixedCellSize(32);
+        objectivesView.setStyle("-fx-background-color: white;");
 
         BorderPane progressScreen = new BorderPane();
         progressScreen.setTop(calendarTopBar);
-        progressScreen.setCenter(scrollPane);
+        progressScreen.setCenter(objectivesView);
         progressScreen.setRight(rightPanel);
         progressScreen.setPadding(new Insets(20));
 
         MissionBoardScreen missionBoardScreen = new MissionBoardScreen(
                 missionManager,
                 xpManager,
-                (v) -> updateXpLabels()
+                eventBus
         );
 
-        TabPane tabPane = new TabPane();
-        Tab progressTab = new Tab("Progress", progressScreen);
-        Tab missionsTab = new Tab("Missions", missionBoardScreen);
-
-        progressTab.setClosable(false);
-        missionsTab.setClosable(false);
-
-        tabPane.getTabs().addAll(progressTab, missionsTab);
-
-        Scene scene = new Scene(tabPane, 1000, 700);
-        stage.setScene(scene);
-        stage.setTitle("Kontinuum Tracker");
-        stage.show();
+        progressTab.setContent(progressScreen);
+        missionsTab.setContent(missionBoardScreen);
     }
 
     private VBox createStatsPanel() {
@@ -139,24 +181,96 @@ public class MainApp extends Application {
         Button addProdXpButton = new Button("➕ 30 XP to Production");
         addProdXpButton.setOnAction(e -> {
             xpManager.addXp(ObjectiveCategory.PRODUCTION, 30);
-            updateXpLabels();
         });
 
         Button addRapXpButton = new Button("➕ 30 XP to Rapping");
         addRapXpButton.setOnAction(e -> {
             xpManager.addXp(ObjectiveCategory.RAPPING, 30);
-            updateXpLabels();
         });
 
         Button addHealthXpButton = new Button("➕ 30 XP to Health");
         addHealthXpButton.setOnAction(e -> {
             xpManager.addXp(ObjectiveCategory.HEALTH, 30);
-            updateXpLabels();
         });
 
         return new VBox(10, buttonsHeader, addProdXpButton, addRapXpButton, addHealthXpButton);
     }
 
+    // Export / import of the whole history; the work runs off the UI thread
+    private VBox createTransferPanel() {
+        Label transferHeader = new Label("Backup");
+        transferHeader.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
+
+        ChoiceBox<ExportFormat> formatBox = new ChoiceBox<>(FXCollections.observableArrayList(ExportFormat.values()));
+        formatBox.setValue(ExportFormat.CSV);
+        Label statusLabel = new Label();
+        Button exportButton = new Button("Export History...");
+        Button importButton = new Button("Import History...");
+
+        exportButton.setOnAction(e -> {
+            File dir = chooseDirectory(exportButton, "Export to folder");
+            if (dir == null) return;
+            ExportFormat format = formatBox.getValue();
+            HistoryExporter exporter = new HistoryExporter(objectiveManager, xpManager, missionManager, penaltyService);
+            runTransfer("Export", statusLabel, List.of(exportButton, importButton),
+                    () -> exporter.export(dir.toPath(), format));
+        });
+
+        importButton.setOnAction(e -> {
+            File dir = chooseDirectory(importButton, "Import from folder");
+            if (dir == null) return;
+            ExportFormat format = formatBox.getValue();
+            HistoryImporter importer = new HistoryImporter(objectiveManager, xpManager, calendarProgressManager,
+                    missionManager, penaltyService);
+            importer.setProgressListener((file, bytesRead, totalBytes) -> Platform.runLater(() ->
+                    statusLabel.setText("Importing " + file + " " + (totalBytes == 0 ? 100 : bytesRead * 100 / totalBytes) + "%")));
+            runTransfer("Import", statusLabel, List.of(exportButton, importButton), () -> {
+                TransferSummary summary = importer.importFrom(dir.toPath(), format);
+                // Also recounts the selected day's completions for the level-up popup
+                Platform.runLater(this::updateObjectives);
+                return summary;
+            });
+        });
+
+        return new VBox(10, transferHeader, formatBox, exportButton, importButton, statusLabel);
+    }
+
+    private File chooseDirectory(Node owner, String title) {
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle(title);
+        return chooser.showDialog(owner.getScene().getWindow());
+    }
+
+    private interface Transfer {
+        TransferSummary run() throws Exception;
+    }
+
+    private void runTransfer(String name, Label statusLabel, List<Button> buttons, Transfer transfer) {
+        buttons.forEach(button -> button.setDisable(true));
+        statusLabel.setText(name + " running...");
+        Thread.ofVirtual().name("kontinuum-transfer").start(() -> {
+            TransferSummary summary = null;
+            Exception failure = null;
+            try {
+                summary = transfer.run();
+            } catch (Exception ex) {
+                ex.printStackTrace();
+                failure = ex;
+            }
+            TransferSummary result = summary;
+            Exception error = failure;
+            Platform.runLater(() -> {
+                buttons.forEach(button -> button.setDisable(false));
+                Alert alert = new Alert(error == null ? Alert.AlertType.INFORMATION : Alert.AlertType.ERROR);
+                alert.setTitle(name);
+                alert.setHeaderText(error == null ? name + " finished" : name + " failed");
+                alert.setContentText(error == null ? result.toString() : error.getMessage());
+                statusLabel.setText(error == null ? name + " finished" : name + " failed");
+                alert.show();
+            });
+        });
+    }
+
     private VBox createPenaltiesPanel() {
         Label penaltiesHeader = new Label("Active Penalties");
         penaltiesHeader.setStyle("-fx-font-size: 14px; -fx-font-weight: bold;");
@@ -164,10 +278,13 @@ public class MainApp extends Application {
         viewPenaltiesButton = new Button("View Active Penalties");
         viewPenaltiesButton.setOnAction(e -> showActivePenaltiesDialog());
 
+        Button viewHistoryButton = new Button("View Penalty History");
+        viewHistoryButton.setOnAction(e -> showPenaltyHistoryDialog());
+
         penaltiesBox.getChildren().clear();
         updatePenaltiesSummary();
 
-        VBox box = new VBox(10, penaltiesHeader, penaltiesBox, viewPenaltiesButton);
+        VBox box = new VBox(10, penaltiesHeader, penaltiesBox, viewPenaltiesButton, viewHistoryButton);
         box.setAlignment(Pos.CENTER_LEFT);
         return box;
     }
@@ -177,6 +294,11 @@ public class MainApp extends Application {
         int activeCount = penaltyService.getActivePenalties().size();
         Label countLabel = new Label("You have " + activeCount + " active penalty" + (activeCount != 1 ? "ies" : ""));
         penaltiesBox.getChildren().add(countLabel);
+        if (penaltyService.hasActivePenalties()) {
+            Label lockedLabel = new Label("Objectives are locked until overdue penalties are done");
+            lockedLabel.setStyle("-fx-text-fill: #c62828;");
+            penaltiesBox.getChildren().add(lockedLabel);
+        }
     }
 
     private void showActivePenaltiesDialog() {
@@ -198,7 +320,6 @@ public class MainApp extends Application {
             Button completeButton = new Button("Complete");
             completeButton.setOnAction(e -> {
                 penaltyService.completePenalty(penalty.getId());
-                updatePenaltiesSummary();
                 dialog.close();
                 showActivePenaltiesDialog();
             });
@@ -220,68 +341,106 @@ public class MainApp extends Application {
         dialog.show();
     }
 
+    // Reads the history log one page at a time instead of loading all of it
+    private void showPenaltyHistoryDialog() {
+        Stage dialog = new Stage();
+        dialog.setTitle("Penalty History");
+
+        VBox entries = new VBox(6);
+        entries.setPadding(new Insets(10));
+        Label pageLabel = new Label();
+        Button newerButton = new Button("< Newer");
+        Button olderButton = new Button("Older >");
+        int[] page = {0};
+
+        Runnable showPage = () -> {
+            List<Penalty> penalties = penaltyService.getHistory().getPage(page[0], HISTORY_PAGE_SIZE);
+            entries.getChildren().clear();
+            for (Penalty penalty : penalties) {
+                entries.getChildren().add(new Label(penalty.getAssignedDate() + "  " + penalty.getType() + ": "
+                        + penalty.getAmount() + (penalty.isCompleted() ? " (completed)" : " (missed)")));
+            }
+            if (penalties.isEmpty()) {
+                entries.getChildren().add(new Label(page[0] == 0 ? "No penalty history yet." : "No older entries."));
+            }
+            pageLabel.setText("Page " + (page[0] + 1));
+            newerButton.setDisable(page[0] == 0);
+            olderButton.setDisable(penalties.size() < HISTORY_PAGE_SIZE);
+        };
+        newerButton.setOnAction(e -> {
+            page[0]--;
+            showPage.run();
+        });
+        olderButton.setOnAction(e -> {
+            page[0]++;
+            showPage.run();
+        });
+        showPage.run();
+
+        ScrollPane scrollPane = new ScrollPane(entries);
+        scrollPane.setPrefSize(400, 300);
+
+        HBox pager = new HBox(10, newerButton, pageLabel, olderButton);
+        pager.setAlignment(Pos.CENTER);
+        pager.setPadding(new Insets(10));
+
+        VBox root = new VBox(scrollPane, pager);
+        dialog.setScene(new Scene(root));
+        dialog.show();
+    }
+
+    // Called when the selected date changes; counts are recomputed only when next read
     private void updateObjectives() {
-        objectivesList.getChildren().clear();
-
-        completionManager.recalculateFromObjectives(objectiveManager.getObjectives(), selectedDate);
-
-        for (Objective obj : objectiveManager.getObjectives()) {
-            CheckBox checkbox = new CheckBox(obj.getDescription());
-            checkbox.setSelected(obj.isCompleted(selectedDate));
-
-            checkbox.setOnAction(e -> {
-                boolean nowCompleted = checkbox.isSelected();
-                if (penaltyService.hasActivePenalties()) {
-                    // Revert checkbox to previous state
-                    checkbox.setSelected(!nowCompleted);
-                    Alert alert = new Alert(Alert.AlertType.WARNING);
-                    alert.setTitle("Penalties Active");
-                    alert.setHeaderText("Can't complete objectives");
-                    alert.setContentText("You must complete all penalties before checking off objectives.");
-                    alert.showAndWait();
-                    return;
-                }
-
-                // Update completed counts BEFORE updating objective completion status
-                if (nowCompleted) {
-                    completionManager.incrementCompletedCount(obj.getCategory());
-                } else {
-                    completionManager.setCompletedCount(
-                            obj.getCategory(),
-                            Math.max(0, completionManager.getCompletedCount(obj.getCategory()) - 1)
-                    );
-                }
-
-                // Update completion status of objective
-                obj.setCompleted(selectedDate, nowCompleted);
-
-                CategoryXpManager.LevelUpInfo levelUpInfo = null;
-
-                if (nowCompleted) {
-                    levelUpInfo = xpManager.addXp(obj.getCategory(), obj.getXpReward());
-                } else {
-                    xpManager.removeXp(obj.getCategory(), obj.getXpReward());
-                }
-
-                updateXpLabels();
-                objectiveManager.saveObjectives();
-                calendarProgressManager.objectiveStateChanged(obj, selectedDate);
-
-                // Show level up popup if leveled up
-                if (levelUpInfo != null) {
-                    int completedCount = completionManager.getCompletedCount(levelUpInfo.category);
-                    LevelUpPopup popup = new LevelUpPopup(
-                            levelUpInfo.category,
-                            levelUpInfo.newLevel,
-                            levelUpInfo.newTotalXp,
-                            completedCount
-                    );
-                    popup.show();
-                }
-            });
+        UiRebuildEvent event = new UiRebuildEvent();
+        event.begin();
+        long begin = UPDATE_OBJECTIVES_TIME.start();
+        List<Objective> objectives = objectiveManager.getObjectives();
+        completionManager.invalidate(objectives, selectedDate);
+        objectivesView.refresh();
+        UPDATE_OBJECTIVES_TIME.stop(begin);
+        event.commit("ui.updateObjectives", objectives.size());
+    }
+
+    private void toggleObjective(Objective obj, LocalDate date, boolean nowCompleted) {
+        if (penaltyService.hasActivePenalties()) {
+            // The cell puts the checkbox back to the objective's actual state
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle("Penalties Active");
+            alert.setHeaderText("Can't complete objectives");
+            alert.setContentText("You must complete all penalties before checking off objectives.");
+            alert.show();
+            return;
+        }
+
+        // Update completion status of objective (journaled, no full rewrite). It refuses if the
+        // penalty lock engaged since the check above, or the day already has that state; the cell
+        // then puts the checkbox back and nothing is counted
+        if (!objectiveManager.setObjectiveCompleted(obj, date, nowCompleted)) {
+            return;
+        }
 
+        CategoryXpManager.LevelUpInfo levelUpInfo = null;
 
-            objectivesList.getChildren().add(checkbox);
+        if (nowCompleted) {
+            completionManager.incrementCompletedCount(obj.getCategory());
+            levelUpInfo = xpManager.addXp(obj.getCategory(), obj.getXpReward());
+        } else {
+            completionManager.decrementCompletedCount(obj.getCategory());
+            xpManager.removeXp(obj.getCategory(), obj.getXpReward());
+        }
+
+        calendarProgressManager.objectiveStateChanged(obj, date, nowCompleted);
+
+        // Show level up popup if leveled up
+        if (levelUpInfo != null) {
+            int completedCount = completionManager.getCompletedCount(levelUpInfo.category);
+            LevelUpPopup popup = new LevelUpPopup(
+                    levelUpInfo.category,
+                    levelUpInfo.newLevel,
+                    levelUpInfo.newTotalXp,
+                    completedCount
+            );
+            popup.show();
         }
     }
 
@@ -304,19 +463,21 @@ public class MainApp extends Application {
                 + " | Next: " + xpManager.getTracker(ObjectiveCategory.HEALTH).getXpToNextLevel());
     }
 
-    public static void main(String[] args) {
-        launch();
+    @Override
+    public void stop() {
+        // Closed before loading finished: whatever was loaded is flushed, the journal is replayed next time
+        if (objectiveManager != null) {
+            objectiveManager.compactJournal();
+        }
+        persistenceService.shutdown();
     }
 
-    private void initializeCompletionManager() {
-        for (ObjectiveCategory category : ObjectiveCategory.values()) {
-            int count = 0;
-            for (Objective obj : objectiveManager.getObjectives()) {
-                if (obj.getCategory() == category && obj.isCompleted(selectedDate)) {
-                    count++;
-                }
-            }
-            completionManager.setCompletedCount(category, count);
+    public static void main(String[] args) {
+        FlightRecording.startIfRequested(args);
+        if (Arrays.asList(args).contains("--headless")) {
+            HeadlessServer.main(args);
+            return;
         }
+        launch(args);
     }
 }
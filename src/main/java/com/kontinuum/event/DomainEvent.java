@@ -0,0 +1,43 @@
+package com.kontinuum.event;
+
+import com.kontinuum.model.ObjectiveCategory;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Something that changed in the services, published on the {@link EventBus} by the
+ * service that made the change, after the change is visible to readers.
+ */
+public sealed interface DomainEvent {
+
+    // The list of objectives itself changed (one added, or all reloaded); completions are CompletionEvents
+    record ObjectivesChanged() implements DomainEvent {}
+
+    // Subscribe to this to hear about single toggles and bulk changes alike
+    sealed interface CompletionEvent extends DomainEvent {}
+
+    record ObjectiveToggled(String objectiveId, ObjectiveCategory category, LocalDate date, boolean completed)
+            implements CompletionEvent {}
+
+    // One event for a whole bulk change (see ObjectiveManager#applyCompletions), with every day that flipped
+    record CompletionsChanged(List<ObjectiveToggled> changes) implements CompletionEvent {}
+
+    // xp is the category's value after the change
+    record XpChanged(ObjectiveCategory category, int xp) implements DomainEvent {}
+
+    record LevelUp(ObjectiveCategory category, int newLevel, int newTotalXp) implements DomainEvent {}
+
+    // Subscribe to this to hear about every penalty change with one subscription
+    sealed interface PenaltyEvent extends DomainEvent {}
+
+    record PenaltyAssigned(String penaltyId) implements PenaltyEvent {}
+
+    record PenaltyCompleted(String penaltyId) implements PenaltyEvent {}
+
+    // Objectives became locked (a penalty went overdue) or unlocked (the last overdue one was done)
+    record PenaltyLockChanged(boolean locked) implements PenaltyEvent {}
+
+    // missionId is null when the whole board was regenerated
+    record MissionStateChanged(String missionId) implements DomainEvent {}
+}
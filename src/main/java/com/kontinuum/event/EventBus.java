@@ -0,0 +1,174 @@
+package com.kontinuum.event;
+
+import com.kontinuum.metrics.Counter;
+import com.kontinuum.metrics.Histogram;
+import com.kontinuum.metrics.MetricsRegistry;
+import com.kontinuum.metrics.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Typed, coalescing event bus. Publishing only queues the event for each matching
+ * subscriber; subscribers receive everything queued since their last delivery as one list,
+ * so ten toggles in a row cause one repaint instead of ten.
+ *
+ * <ul>
+ *   <li>Subscribers registered with {@link #subscribe(Class, Consumer)} are drained by a single
+ *       task handed to the UI executor ({@code Platform::runLater} in the app), so all events
+ *       published before the next pulse arrive in one call.</li>
+ *   <li>Subscribers registered with {@link #subscribe(Class, Executor, Consumer)} are drained
+ *       the same way on the given executor, so slow non-UI work never runs on the FX thread or
+ *       on the publisher's thread. Subscribers sharing an executor share one drain task.</li>
+ * </ul>
+ * {@link #publish} is safe to call from any thread and never runs subscriber code itself
+ * (unless the executor is a direct one, as the UI executor is in the headless server). A
+ * handler is never called concurrently with itself, even on a multi-threaded executor.
+ * Persistence doesn't subscribe: {@link com.kontinuum.service.PersistenceService#markDirty}
+ * is already a cheap set-add that coalesces writes on its own thread.
+ */
+public class EventBus {
+
+    private static final Counter PUBLISHED = MetricsRegistry.getDefault().counter("events.published");
+    // Events per delivery; shows how much coalescing saves
+    private static final Histogram BATCH_SIZE = MetricsRegistry.getDefault().histogram("events.batch");
+    private static final Counter SUBSCRIBER_ERRORS = MetricsRegistry.getDefault().counter("events.errors");
+    private static final Timer UI_DISPATCH_TIME = MetricsRegistry.getDefault().timer("events.dispatch.ui");
+    private static final Timer BACKGROUND_DISPATCH_TIME = MetricsRegistry.getDefault().timer("events.dispatch.background");
+
+    private final List<Subscriber<?>> subscribers = new CopyOnWriteArrayList<>();
+    private final List<Channel> channels = new CopyOnWriteArrayList<>();
+    private final Channel uiChannel;
+
+    // One executor and the subscribers delivered on it
+    private class Channel {
+        final Executor executor;
+        final Timer timer;
+        final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+        Channel(Executor executor, Timer timer) {
+            this.executor = executor;
+            this.timer = timer;
+        }
+
+        // At most one drain task per channel is queued; events published before it runs ride along
+        void schedule() {
+            if (drainScheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        // Locked so a multi-threaded executor can't run two passes at once and reorder batches
+        synchronized void drain() {
+            // Cleared first, so an event published while draining schedules another pass
+            drainScheduled.set(false);
+            long begin = timer.start();
+            for (Subscriber<?> subscriber : subscribers) {
+                if (subscriber.channel == this) {
+                    subscriber.drain();
+                }
+            }
+            timer.stop(begin);
+        }
+    }
+
+    private static class Subscriber<E extends DomainEvent> {
+        final Class<E> type;
+        final Channel channel;
+        final Consumer<List<E>> handler;
+        final Queue<E> pending = new ConcurrentLinkedQueue<>();
+
+        Subscriber(Class<E> type, Channel channel, Consumer<List<E>> handler) {
+            this.type = type;
+            this.channel = channel;
+            this.handler = handler;
+        }
+
+        // Returns true if the event was queued for this subscriber
+        boolean offer(DomainEvent event) {
+            if (!type.isInstance(event)) return false;
+            pending.add(type.cast(event));
+            return true;
+        }
+
+        void drain() {
+            if (pending.isEmpty()) return;
+            List<E> batch = new ArrayList<>();
+            for (E event; (event = pending.poll()) != null; ) {
+                batch.add(event);
+            }
+            BATCH_SIZE.record(batch.size());
+            try {
+                handler.accept(batch);
+            } catch (RuntimeException e) {
+                // One failing subscriber must not starve the others
+                SUBSCRIBER_ERRORS.increment();
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @param uiExecutor runs deliveries for {@link #subscribe(Class, Consumer)}, e.g. {@code Platform::runLater}
+     */
+    public EventBus(Executor uiExecutor) {
+        this.uiChannel = new Channel(uiExecutor, UI_DISPATCH_TIME);
+        channels.add(uiChannel);
+    }
+
+    // For front ends without a UI thread; UI subscribers are delivered on the publishing thread
+    public static EventBus direct() {
+        return new EventBus(Runnable::run);
+    }
+
+    /**
+     * Registers a handler for events of the given type (or any subtype, e.g.
+     * {@link DomainEvent.PenaltyEvent}), delivered on the UI executor. The handler gets every
+     * matching event published since its previous call, oldest first, and is never called
+     * with an empty list.
+     */
+    public <E extends DomainEvent> void subscribe(Class<E> type, Consumer<List<E>> handler) {
+        subscribers.add(new Subscriber<>(type, uiChannel, handler));
+    }
+
+    /**
+     * Same as {@link #subscribe(Class, Consumer)}, but deliveries run on {@code executor}
+     * instead of the UI executor; for handlers that are slow or must stay off the FX thread.
+     * The bus doesn't own the executor and never shuts it down.
+     */
+    public <E extends DomainEvent> void subscribe(Class<E> type, Executor executor, Consumer<List<E>> handler) {
+        subscribers.add(new Subscriber<>(type, channelFor(executor), handler));
+    }
+
+    private synchronized Channel channelFor(Executor executor) {
+        for (Channel channel : channels) {
+            if (channel.executor == executor) return channel;
+        }
+        Channel channel = new Channel(executor, BACKGROUND_DISPATCH_TIME);
+        channels.add(channel);
+        return channel;
+    }
+
+    public void unsubscribe(Consumer<?> handler) {
+        subscribers.removeIf(subscriber -> subscriber.handler == handler);
+    }
+
+    public void publish(DomainEvent event) {
+        PUBLISHED.increment();
+        // Queued everywhere before any drain is scheduled, so a direct executor sees the event for all its subscribers
+        List<Channel> queued = new ArrayList<>(1);
+        for (Subscriber<?> subscriber : subscribers) {
+            if (subscriber.offer(event) && !queued.contains(subscriber.channel)) {
+                queued.add(subscriber.channel);
+            }
+        }
+        for (Channel channel : queued) {
+            channel.schedule();
+        }
+    }
+}
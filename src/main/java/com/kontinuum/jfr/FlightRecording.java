@@ -0,0 +1,123 @@
+package com.kontinuum.jfr;
+
+import com.kontinuum.service.DataPaths;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Continuous flight recording for diagnosing slowdowns after the fact. Started with
+ * {@code --jfr} (dumps go to "recordings" in the data directory) or {@code --jfr=<dir>}.
+ * <p>
+ * The recording uses the JDK's low-overhead "default" settings plus the Kontinuum events
+ * in this package, and keeps only the last hour on disk. Every ten minutes that window is
+ * dumped to a timestamped file, keeping the newest few, and once more on exit; so when a
+ * user reports a slowdown, the dump covering it is already there to open in JDK Mission Control.
+ */
+public final class FlightRecording {
+    private static final String FLAG = "--jfr";
+    private static final String PREFIX = "kontinuum-";
+    private static final Duration MAX_AGE = Duration.ofHours(1);
+    private static final long MAX_SIZE = 100L * 1024 * 1024;
+    private static final Duration DUMP_INTERVAL = Duration.ofMinutes(10);
+    private static final int KEPT_DUMPS = 6;
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Recording recording;
+    private final Path dir;
+
+    private FlightRecording(Recording recording, Path dir) {
+        this.recording = recording;
+        this.dir = dir;
+    }
+
+    /**
+     * Starts the recording if the arguments contain {@code --jfr}; returns null otherwise or
+     * if it could not be started (the app runs without it).
+     */
+    public static FlightRecording startIfRequested(String[] args) {
+        for (String arg : args) {
+            if (arg.equals(FLAG)) {
+                return start(DataPaths.resolve("recordings"));
+            } else if (arg.startsWith(FLAG + "=")) {
+                return start(Paths.get(arg.substring(FLAG.length() + 1)));
+            }
+        }
+        return null;
+    }
+
+    public static FlightRecording start(Path dir) {
+        try {
+            Files.createDirectories(dir);
+            Recording recording = new Recording(Configuration.getConfiguration("default"));
+            recording.setName("kontinuum");
+            recording.setToDisk(true);
+            recording.setMaxAge(MAX_AGE);
+            recording.setMaxSize(MAX_SIZE);
+            recording.setDumpOnExit(true);
+            recording.setDestination(dir.resolve(PREFIX + "exit.jfr"));
+            recording.start();
+
+            FlightRecording flight = new FlightRecording(recording, dir);
+            ScheduledExecutorService dumper = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform()
+                    .name("kontinuum-jfr-dump").daemon(true).factory());
+            long interval = DUMP_INTERVAL.toSeconds();
+            dumper.scheduleWithFixedDelay(flight::dumpSafely, interval, interval, TimeUnit.SECONDS);
+            System.out.println("Flight recording on, dumps in " + dir.toAbsolutePath());
+            return flight;
+        } catch (IOException | ParseException | RuntimeException e) {
+            // A JVM without JFR support, an unwritable directory, ...
+            System.err.println("Could not start the flight recording: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes what the recording currently holds (up to the last hour) to a new timestamped
+     * file, then deletes all but the newest dumps.
+     */
+    public synchronized Path dump() throws IOException {
+        Path file = dir.resolve(PREFIX + LocalDateTime.now().format(STAMP) + ".jfr");
+        recording.dump(file);
+        pruneDumps();
+        return file;
+    }
+
+    private void dumpSafely() {
+        try {
+            dump();
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void pruneDumps() throws IOException {
+        // The timestamp sorts by name; the exit dump has no digits and is left alone
+        List<Path> dumps = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, PREFIX + "[0-9]*.jfr")) {
+            files.forEach(dumps::add);
+        }
+        dumps.sort(null);
+        for (int i = 0; i < dumps.size() - KEPT_DUMPS; i++) {
+            Files.deleteIfExists(dumps.get(i));
+        }
+    }
+
+    public Recording getRecording() {
+        return recording;
+    }
+}
@@ -0,0 +1,25 @@
+package com.kontinuum.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The daily mission board being regenerated, including the save that follows.
+ */
+@Name("com.kontinuum.MissionBoardRegenerated")
+@Label("Mission Board Regenerated")
+@Category({"Kontinuum", "Missions"})
+@Description("Unaccepted missions replaced with new ones")
+public class MissionBoardEvent extends Event {
+    @Label("Player Level")
+    public int playerLevel;
+
+    @Label("Kept")
+    public int kept;
+
+    @Label("Generated")
+    public int generated;
+}
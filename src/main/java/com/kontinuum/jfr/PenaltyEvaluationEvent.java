@@ -0,0 +1,29 @@
+package com.kontinuum.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One daily penalty evaluation, either for a single day or catching up on every day
+ * missed since the last one.
+ */
+@Name("com.kontinuum.PenaltyEvaluation")
+@Label("Penalty Evaluation")
+@Category({"Kontinuum", "Penalties"})
+@Description("Missed objectives evaluated and penalties assigned")
+public class PenaltyEvaluationEvent extends Event {
+    @Label("First Day")
+    public String firstDay;
+
+    @Label("Days")
+    public int days;
+
+    @Label("Missed Objectives")
+    public int missedObjectives;
+
+    @Label("Penalties Assigned")
+    public int penaltiesAssigned;
+}
@@ -0,0 +1,49 @@
+package com.kontinuum.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.nio.file.Path;
+
+/**
+ * One read or durable write of a data file: the whole kontinuum.dat on open or commit, or
+ * one year file of the history archive. The event's duration is the file I/O itself.
+ */
+@Name("com.kontinuum.StoreIo")
+@Label("Store I/O")
+@Category({"Kontinuum", "Persistence"})
+@Description("A data file read or written")
+public class StoreIoEvent extends Event {
+    public static final String LOAD = "load";
+    public static final String SAVE = "save";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("File")
+    public String file;
+
+    // Sections written by a commit, e.g. "objectives,xp"; the archive year for archive files
+    @Label("Sections")
+    public String sections;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    // Ends the event and commits it if the recording wants it; fields are only filled in then
+    public void commit(String operation, Path file, String sections, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.file = file.toString();
+            this.sections = sections;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
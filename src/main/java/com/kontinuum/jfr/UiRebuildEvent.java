@@ -0,0 +1,35 @@
+package com.kontinuum.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A view refreshed on the FX thread. Long ones show up next to the GC and safepoint events
+ * that explain a stutter.
+ */
+@Name("com.kontinuum.UiRebuild")
+@Label("UI Rebuild")
+@Category({"Kontinuum", "UI"})
+@Description("A view rebuilt on the FX application thread")
+public class UiRebuildEvent extends Event {
+    // Same name as the view's timer, e.g. "ui.refreshMissions"
+    @Label("View")
+    public String view;
+
+    // Items shown or updated, where the view has a natural count
+    @Label("Items")
+    public int items;
+
+    // Skips building the fields when nothing is recording this event
+    public void commit(String view, int items) {
+        end();
+        if (shouldCommit()) {
+            this.view = view;
+            this.items = items;
+            commit();
+        }
+    }
+}
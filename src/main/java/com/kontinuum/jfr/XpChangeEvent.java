@@ -0,0 +1,33 @@
+package com.kontinuum.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * XP added to, removed from or set on one category. Instant; the interesting part is how
+ * often it happens and whether it levelled up.
+ */
+@Name("com.kontinuum.XpChange")
+@Label("XP Change")
+@Category({"Kontinuum", "XP"})
+@Description("A category's XP changed")
+public class XpChangeEvent extends Event {
+    @Label("Category")
+    public String category;
+
+    @Label("Delta")
+    public int delta;
+
+    @Label("XP After")
+    public int xp;
+
+    @Label("Level Up")
+    public boolean levelUp;
+
+    // The category's level after the change
+    @Label("Level")
+    public int level;
+}
@@ -0,0 +1,28 @@
+package com.kontinuum.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A running count. Increments from many threads don't contend (LongAdder).
+ */
+public class Counter implements CounterMXBean {
+    private final LongAdder count = new LongAdder();
+
+    public void increment() {
+        count.increment();
+    }
+
+    public void add(long amount) {
+        count.add(amount);
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    public void reset() {
+        count.reset();
+    }
+}
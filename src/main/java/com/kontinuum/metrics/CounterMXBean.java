@@ -0,0 +1,7 @@
+package com.kontinuum.metrics;
+
+public interface CounterMXBean {
+    long getCount();
+
+    void reset();
+}
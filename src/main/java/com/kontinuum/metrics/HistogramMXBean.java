@@ -0,0 +1,18 @@
+package com.kontinuum.metrics;
+
+// Percentiles are bucket upper bounds, within 12.5% of the recorded value
+public interface HistogramMXBean {
+    long getCount();
+
+    double getMean();
+
+    long getMax();
+
+    long getP50();
+
+    long getP90();
+
+    long getP99();
+
+    void reset();
+}
@@ -0,0 +1,86 @@
+package com.kontinuum.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * In-process metrics by dotted name ("objectives.save", "ui.refreshMissions"; letters, digits
+ * and dots only, so names work unquoted in JMX object names). Metrics are
+ * created on first lookup and live for the whole process; callers keep them in static fields
+ * so recording never touches the registry. After {@link #exposeOverJmx()} every metric,
+ * including ones created later, is an MXBean named
+ * {@code com.kontinuum:type=Timer,name=objectives.save}, for JConsole or VisualVM.
+ */
+public class MetricsRegistry {
+    private static final String DOMAIN = "com.kontinuum";
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    private final Map<String, Object> metrics = new ConcurrentHashMap<>();
+    private volatile MBeanServer mbeanServer;
+
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public Counter counter(String name) {
+        return get(name, Counter.class, Counter::new);
+    }
+
+    public Timer timer(String name) {
+        return get(name, Timer.class, Timer::new);
+    }
+
+    public Histogram histogram(String name) {
+        return get(name, Histogram.class, Histogram::new);
+    }
+
+    private <M> M get(String name, Class<M> type, Supplier<M> factory) {
+        Object metric = metrics.get(name);
+        if (metric == null) {
+            synchronized (this) {
+                metric = metrics.get(name);
+                if (metric == null) {
+                    metric = factory.get();
+                    metrics.put(name, metric);
+                    if (mbeanServer != null) {
+                        register(mbeanServer, name, metric);
+                    }
+                }
+            }
+        }
+        if (!type.isInstance(metric)) {
+            throw new IllegalArgumentException(name + " is a " + metric.getClass().getSimpleName() + ", not a " + type.getSimpleName());
+        }
+        return type.cast(metric);
+    }
+
+    // Sorted by name
+    public Map<String, Object> getMetrics() {
+        return new TreeMap<>(metrics);
+    }
+
+    // Registers every metric with the platform MBean server; later calls do nothing
+    public synchronized void exposeOverJmx() {
+        if (mbeanServer != null) return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        metrics.forEach((name, metric) -> register(server, name, metric));
+        mbeanServer = server;
+    }
+
+    private static void register(MBeanServer server, String name, Object metric) {
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + metric.getClass().getSimpleName() + ",name=" + name);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(metric, objectName);
+            }
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+}
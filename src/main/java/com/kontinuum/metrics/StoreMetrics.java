@@ -0,0 +1,30 @@
+package com.kontinuum.metrics;
+
+/**
+ * The usual metrics for one persisted store, all prefixed with its name:
+ * {@code .load}, {@code .encode} and {@code .save} timers, a {@code .bytes} histogram of
+ * encoded sizes and an {@code .errors} counter for failures that are otherwise only printed.
+ */
+public class StoreMetrics {
+    public final Timer load;
+    public final Timer encode;
+    public final Timer save;
+    public final Histogram bytes;
+    public final Counter errors;
+
+    public StoreMetrics(String store) {
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        this.load = registry.timer(store + ".load");
+        this.encode = registry.timer(store + ".encode");
+        this.save = registry.timer(store + ".save");
+        this.bytes = registry.histogram(store + ".bytes");
+        this.errors = registry.counter(store + ".errors");
+    }
+
+    // Times an encoder and records the size of what it produced
+    public byte[] encoded(long begin, byte[] data) {
+        encode.stop(begin);
+        bytes.record(data.length);
+        return data;
+    }
+}
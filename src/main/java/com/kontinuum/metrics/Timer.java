@@ -0,0 +1,75 @@
+package com.kontinuum.metrics;
+
+/**
+ * Durations of an operation, recorded in nanoseconds into a {@link Histogram}. Timing a
+ * call allocates nothing:
+ * <pre>
+ * long begin = timer.start();
+ * try {
+ *     ...
+ * } finally {
+ *     timer.stop(begin);
+ * }
+ * </pre>
+ */
+public class Timer implements TimerMXBean {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Histogram nanos = new Histogram();
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void stop(long begin) {
+        nanos.record(System.nanoTime() - begin);
+    }
+
+    public void record(long elapsedNanos) {
+        nanos.record(elapsedNanos);
+    }
+
+    public Histogram getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public long getCount() {
+        return nanos.getCount();
+    }
+
+    @Override
+    public double getTotalMillis() {
+        return nanos.getSum() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMeanMillis() {
+        return nanos.getMean() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return nanos.getMax() / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return nanos.percentile(0.50) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP90Millis() {
+        return nanos.percentile(0.90) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public double getP99Millis() {
+        return nanos.percentile(0.99) / NANOS_PER_MILLI;
+    }
+
+    @Override
+    public void reset() {
+        nanos.reset();
+    }
+}
@@ -0,0 +1,20 @@
+package com.kontinuum.metrics;
+
+// Same as HistogramMXBean, in milliseconds
+public interface TimerMXBean {
+    long getCount();
+
+    double getTotalMillis();
+
+    double getMeanMillis();
+
+    double getMaxMillis();
+
+    double getP50Millis();
+
+    double getP90Millis();
+
+    double getP99Millis();
+
+    void reset();
+}
@@ -0,0 +1,52 @@
+package com.kontinuum.model;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of one bulk completion (see {@link com.kontinuum.service.ObjectiveManager#applyCompletions}):
+ * the changes that actually flipped a day, after repeated changes to the same day netted out,
+ * and the XP each category gains (negative: loses) from them.
+ */
+public class BulkCompletionResult {
+    private static final BulkCompletionResult NONE =
+            new BulkCompletionResult(Collections.emptyList(), new EnumMap<>(ObjectiveCategory.class), 0);
+
+    private final List<CompletionChange> applied;
+    private final Map<ObjectiveCategory, Integer> xpDelta;
+    private final int requested;
+
+    public BulkCompletionResult(List<CompletionChange> applied, Map<ObjectiveCategory, Integer> xpDelta, int requested) {
+        this.applied = applied;
+        this.xpDelta = xpDelta;
+        this.requested = requested;
+    }
+
+    public static BulkCompletionResult none() {
+        return NONE;
+    }
+
+    public List<CompletionChange> getApplied() {
+        return applied;
+    }
+
+    // Categories without a net change are absent
+    public Map<ObjectiveCategory, Integer> getXpDelta() {
+        return Collections.unmodifiableMap(xpDelta);
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public boolean isEmpty() {
+        return applied.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return applied.size() + " of " + requested + " change(s) applied, XP " + xpDelta;
+    }
+}
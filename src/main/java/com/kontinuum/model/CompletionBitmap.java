@@ -0,0 +1,156 @@
+package com.kontinuum.model;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Completion history of one objective as a bitmap keyed by epoch day.
+ * Bit i of the backing array is day (baseDay + i); baseDay is always 64-aligned so a
+ * day maps to a fixed word. A year of history costs 46 bytes, lookups and toggles inside
+ * the covered range are plain bit operations with no allocation.
+ * All methods are synchronized so a snapshot written on the persistence thread, or a
+ * read from another request thread, never sees a half-grown or trimmed array.
+ */
+public class CompletionBitmap {
+    // Returned by nextSetDay when there are no more completed days
+    public static final long NONE = Long.MIN_VALUE;
+    // Widest range of days one bitmap (or progress index) may cover: 400 years, 18 KB of words
+    public static final long MAX_SPAN_DAYS = 146_097;
+
+    private static final long[] EMPTY = new long[0];
+
+    private long baseDay;
+    private long[] words = EMPTY;
+
+    public synchronized boolean get(long epochDay) {
+        long offset = epochDay - baseDay;
+        if (offset < 0) return false;
+        long wordIndex = offset >>> 6;
+        if (wordIndex >= words.length) return false;
+        return (words[(int) wordIndex] & (1L << offset)) != 0;
+    }
+
+    public synchronized void set(long epochDay, boolean completed) {
+        if (!completed) {
+            long offset = epochDay - baseDay;
+            if (offset < 0 || (offset >>> 6) >= words.length) return;
+            words[(int) (offset >>> 6)] &= ~(1L << offset);
+            return;
+        }
+        ensureCovers(epochDay);
+        long offset = epochDay - baseDay;
+        words[(int) (offset >>> 6)] |= 1L << offset;
+    }
+
+    public synchronized void clear() {
+        words = EMPTY;
+        baseDay = 0;
+    }
+
+    public synchronized boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) return false;
+        }
+        return true;
+    }
+
+    public synchronized int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Calls the action with every completed epoch day, in ascending order.
+     */
+    public synchronized void forEach(LongConsumer action) {
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                int bit = Long.numberOfTrailingZeros(word);
+                action.accept(baseDay + ((long) i << 6) + bit);
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the first completed epoch day at or after fromEpochDay, or {@link #NONE}.
+     */
+    public synchronized long nextSetDay(long fromEpochDay) {
+        long offset = fromEpochDay <= baseDay ? 0 : fromEpochDay - baseDay;
+        long wordIndex = offset >>> 6;
+        if (wordIndex >= words.length) return NONE;
+
+        long word = words[(int) wordIndex] & (-1L << offset);
+        while (true) {
+            if (word != 0) {
+                return baseDay + (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++wordIndex >= words.length) return NONE;
+            word = words[(int) wordIndex];
+        }
+    }
+
+    /**
+     * Adds one to counts[day - fromEpochDay] for every completed day in
+     * [fromEpochDay, fromEpochDay + counts.length).
+     */
+    public synchronized void accumulate(int[] counts, long fromEpochDay) {
+        long endDay = fromEpochDay + counts.length;
+        for (long day = nextSetDay(fromEpochDay); day != NONE && day < endDay; day = nextSetDay(day + 1)) {
+            counts[(int) (day - fromEpochDay)]++;
+        }
+    }
+
+    /**
+     * Drops every day before epochDay (used once those days have been archived).
+     *
+     * @return true if any completed day was removed
+     */
+    public synchronized boolean clearBefore(long epochDay) {
+        long offset = epochDay - baseDay;
+        if (words.length == 0 || offset <= 0) return false;
+
+        long wordIndex = offset >>> 6;
+        boolean removed = false;
+        for (int i = 0; i < Math.min(wordIndex + 1, words.length); i++) {
+            long dropped = i < wordIndex ? words[i] : words[i] & ~(-1L << offset);
+            removed |= dropped != 0;
+        }
+        if (wordIndex >= words.length) {
+            clear();
+            return removed;
+        }
+        words = Arrays.copyOfRange(words, (int) wordIndex, words.length);
+        baseDay += wordIndex << 6;
+        words[0] &= -1L << offset;
+        return removed;
+    }
+
+    // Grows the backing array so that epochDay has a bit, keeping the 64-day alignment
+    private void ensureCovers(long epochDay) {
+        long alignedDay = Math.floorDiv(epochDay, 64) * 64;
+        if (words.length == 0) {
+            baseDay = alignedDay;
+            words = new long[1];
+            return;
+        }
+
+        long endDay = baseDay + ((long) words.length << 6);
+        if (epochDay >= baseDay && epochDay < endDay) return;
+
+        long newBase = Math.min(baseDay, alignedDay);
+        long newEnd = Math.max(endDay, alignedDay + 64);
+        // A stray far-off date must not turn into a huge (or overflowing) allocation
+        if (newEnd - newBase > MAX_SPAN_DAYS) {
+            throw new IllegalArgumentException("Day " + epochDay + " is too far from the recorded history");
+        }
+        long[] grown = new long[(int) ((newEnd - newBase) >>> 6)];
+        System.arraycopy(words, 0, grown, (int) ((baseDay - newBase) >>> 6), words.length);
+        words = grown;
+        baseDay = newBase;
+    }
+}
@@ -0,0 +1,10 @@
+package com.kontinuum.model;
+
+import java.time.LocalDate;
+
+/**
+ * One requested completion state for an objective on a day, as passed to
+ * {@link com.kontinuum.service.ObjectiveManager#applyCompletions}.
+ */
+public record CompletionChange(Objective objective, LocalDate date, boolean completed) {
+}
@@ -19,6 +19,16 @@ public class MissedObjectiveTracker {
         return currentStreak;
     }
 
+    public LocalDate getLastEvaluated() {
+        return lastEvaluated;
+    }
+
+    // Restores a saved streak so escalation carries over between launches
+    public void restore(int streak, LocalDate lastEvaluated) {
+        this.currentStreak = streak;
+        this.lastEvaluated = lastEvaluated;
+    }
+
     public void reset() {
         currentStreak = 0;
     }
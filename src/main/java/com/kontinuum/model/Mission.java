@@ -29,4 +29,18 @@ public class Mission {
         this.isCompleted = false;
         this.conditions = conditions;
     }
+
+    // Copy for publishing a changed mission without touching the original
+    public Mission(Mission other) {
+        this.id = other.id;
+        this.title = other.title;
+        this.rarity = other.rarity;
+        this.xpReward = other.xpReward;
+        this.timesCompleted = other.timesCompleted;
+        this.category = other.category;
+        this.lastCompletedDate = other.lastCompletedDate;
+        this.isAccepted = other.isAccepted;
+        this.isCompleted = other.isCompleted;
+        this.conditions = other.conditions;
+    }
 }
@@ -3,37 +3,71 @@ package com.kontinuum.model;
 import com.google.gson.annotations.Expose;
 import com.google.gson.annotations.SerializedName;
 import com.kontinuum.model.PenaltyService;
+import com.kontinuum.service.CompletionArchive;
 
 import java.time.LocalDate;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.UUID;
 
 public class Objective {
+    private String id;
     private String description;
     private int xpReward;
     private ObjectiveCategory category;
 
+    // Serialized under the old map name so existing objectives.json files still load
     @SerializedName("completedByDate")
     @Expose
-    private Map<String, Boolean> completedByDate = new HashMap<>();
-
-    private transient Map<LocalDate, Boolean> completionMap = new HashMap<>();
+    private CompletionBitmap completions = new CompletionBitmap();
 
     // Dependency hook (must be injected in app startup)
     private static PenaltyService penaltyService;
+    // Cold tier for days before its boundary; without one the bitmap holds the whole history
+    private static CompletionArchive historyArchive;
 
     public Objective() {}
 
     public Objective(String description, int xpReward, ObjectiveCategory category) {
+        this.id = UUID.randomUUID().toString();
+        this.description = description;
+        this.xpReward = xpReward;
+        this.category = category;
+    }
+
+    // Used when decoding a saved objective
+    public Objective(String id, String description, int xpReward, ObjectiveCategory category, CompletionBitmap completions) {
+        this.id = id;
         this.description = description;
         this.xpReward = xpReward;
         this.category = category;
+        this.completions = completions;
     }
 
     public static void setPenaltyService(PenaltyService service) {
         penaltyService = service;
     }
 
+    public static void setHistoryArchive(CompletionArchive archive) {
+        historyArchive = archive;
+    }
+
+    public static CompletionArchive getHistoryArchive() {
+        return historyArchive;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Objectives saved before ids existed are loaded without one.
+     * Returns true if a new id had to be generated.
+     */
+    public boolean ensureId() {
+        if (id != null) return false;
+        id = UUID.randomUUID().toString();
+        return true;
+    }
+
     public String getDescription() {
         return description;
     }
@@ -59,10 +93,15 @@ public class Objective {
     }
 
     public boolean isCompleted(LocalDate date) {
-        if (completionMap == null || completionMap.isEmpty()) {
-            syncFromSerialized();
+        return isCompleted(date.toEpochDay());
+    }
+
+    public boolean isCompleted(long epochDay) {
+        CompletionArchive archive = historyArchive;
+        if (archive != null && archive.isArchived(epochDay)) {
+            return archive.get(id, epochDay);
         }
-        return completionMap.getOrDefault(date, false);
+        return completions != null && completions.get(epochDay);
     }
 
     public void setCompleted(LocalDate date, boolean completed) {
@@ -71,38 +110,42 @@ public class Objective {
             return;
         }
 
-        if (completionMap == null) {
-            completionMap = new HashMap<>();
+        restoreCompletion(date, completed);
+    }
+
+    // Applies a completion state without the penalty check (used when replaying persisted state)
+    public void restoreCompletion(LocalDate date, boolean completed) {
+        long epochDay = date.toEpochDay();
+        CompletionArchive archive = historyArchive;
+        if (archive != null && archive.isArchived(epochDay)) {
+            archive.set(id, epochDay, completed);
+            return;
         }
-        completionMap.put(date, completed);
-        syncToSerialized();
+        getCompletions().set(epochDay, completed);
     }
 
-    public void reset() {
-        completionMap.clear();
-        completedByDate.clear();
-    }
-
-    private void syncFromSerialized() {
-        completionMap = new HashMap<>();
-        if (completedByDate != null) {
-            for (Map.Entry<String, Boolean> entry : completedByDate.entrySet()) {
-                try {
-                    LocalDate key = LocalDate.parse(entry.getKey());
-                    completionMap.put(key, entry.getValue());
-                } catch (Exception e) {
-                    // ignore parse errors
-                }
-            }
+    /**
+     * Adds one to counts[day - fromEpochDay] for every completed day in
+     * [fromEpochDay, fromEpochDay + counts.length), from both the archive and the bitmap.
+     */
+    public void accumulate(int[] counts, long fromEpochDay) {
+        CompletionArchive archive = historyArchive;
+        if (archive != null && archive.isArchived(fromEpochDay)) {
+            archive.accumulate(id, counts, fromEpochDay);
         }
+        getCompletions().accumulate(counts, fromEpochDay);
     }
 
-    private void syncToSerialized() {
-        completedByDate = new HashMap<>();
-        if (completionMap != null) {
-            for (Map.Entry<LocalDate, Boolean> entry : completionMap.entrySet()) {
-                completedByDate.put(entry.getKey().toString(), entry.getValue());
-            }
+    // In-memory days only; once a history archive is set, older days live there
+    public CompletionBitmap getCompletions() {
+        if (completions == null) {
+            completions = new CompletionBitmap();
         }
+        return completions;
+    }
+
+    // Clears the in-memory days; archived history is left alone
+    public void reset() {
+        getCompletions().clear();
     }
 }
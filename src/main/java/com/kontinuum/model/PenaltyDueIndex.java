@@ -0,0 +1,128 @@
+package com.kontinuum.model;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps track of which active penalties are overdue without rescanning them.
+ * Penalties that aren't due yet sit in a min-heap by due date; one scheduled task moves the
+ * head to the overdue set when the day after its due date starts (the same boundary as
+ * {@link Penalty#isOverdue()}) and re-arms itself for the next head.
+ */
+class PenaltyDueIndex {
+    private final PriorityQueue<Penalty> pending = new PriorityQueue<>(Comparator.comparing(Penalty::getDueDate));
+    private final Set<Penalty> overdue = new HashSet<>();
+    private final PenaltyLockListener lockListener;
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("kontinuum-penalty-clock").factory());
+    private ScheduledFuture<?> nextTransition;
+
+    // The only thing the completion path reads
+    private volatile boolean locked;
+
+    PenaltyDueIndex(PenaltyLockListener lockListener) {
+        this.lockListener = lockListener;
+    }
+
+    boolean isLocked() {
+        return locked;
+    }
+
+    void add(Penalty penalty) {
+        synchronized (this) {
+            if (penalty.isCompleted()) return;
+            if (isOverdue(penalty, LocalDate.now())) {
+                overdue.add(penalty);
+            } else {
+                pending.add(penalty);
+            }
+        }
+        stateChanged();
+    }
+
+    // Like add, but re-arms the timer and notifies only once for the whole batch
+    void addAll(Collection<Penalty> penalties) {
+        synchronized (this) {
+            LocalDate today = LocalDate.now();
+            for (Penalty penalty : penalties) {
+                if (penalty.isCompleted()) continue;
+                if (isOverdue(penalty, today)) {
+                    overdue.add(penalty);
+                } else {
+                    pending.add(penalty);
+                }
+            }
+        }
+        stateChanged();
+    }
+
+    void remove(Penalty penalty) {
+        synchronized (this) {
+            pending.remove(penalty);
+            overdue.remove(penalty);
+        }
+        stateChanged();
+    }
+
+    void clear() {
+        synchronized (this) {
+            pending.clear();
+            overdue.clear();
+        }
+        stateChanged();
+    }
+
+    // Moves every penalty whose due boundary has passed; normally run by the scheduler
+    void promoteDue() {
+        synchronized (this) {
+            LocalDate today = LocalDate.now();
+            while (!pending.isEmpty() && isOverdue(pending.peek(), today)) {
+                Penalty penalty = pending.poll();
+                if (!penalty.isCompleted()) {
+                    overdue.add(penalty);
+                }
+            }
+        }
+        stateChanged();
+    }
+
+    private void stateChanged() {
+        boolean nowLocked;
+        synchronized (this) {
+            scheduleNextTransition();
+            nowLocked = !overdue.isEmpty();
+            if (nowLocked == locked) return;
+            locked = nowLocked;
+        }
+        // Outside the lock so listeners can call back into the service
+        lockListener.onLockStateChanged(nowLocked);
+    }
+
+    private void scheduleNextTransition() {
+        if (nextTransition != null) {
+            nextTransition.cancel(false);
+            nextTransition = null;
+        }
+        Penalty next = pending.peek();
+        if (next == null) return;
+
+        ZonedDateTime now = ZonedDateTime.now();
+        ZonedDateTime boundary = next.getDueDate().plusDays(1).atStartOfDay(now.getZone());
+        long delayMillis = Math.max(0, Duration.between(now, boundary).toMillis());
+        nextTransition = scheduler.schedule(this::promoteDue, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static boolean isOverdue(Penalty penalty, LocalDate today) {
+        return today.isAfter(penalty.getDueDate());
+    }
+}
@@ -0,0 +1,57 @@
+package com.kontinuum.model;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one catch-up evaluation (see {@link PenaltyService#evaluateMissedDays}):
+ * the range of days that was evaluated and every penalty assigned for them.
+ */
+public class PenaltyEvaluationResult {
+    private static final PenaltyEvaluationResult NONE = new PenaltyEvaluationResult(null, null, Collections.emptyList(), 0);
+
+    private final LocalDate firstDay;
+    private final LocalDate lastDay;
+    private final List<Penalty> assigned;
+    private final int missedObjectives;
+
+    public PenaltyEvaluationResult(LocalDate firstDay, LocalDate lastDay, List<Penalty> assigned, int missedObjectives) {
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+        this.assigned = assigned;
+        this.missedObjectives = missedObjectives;
+    }
+
+    public static PenaltyEvaluationResult none() {
+        return NONE;
+    }
+
+    // Null when nothing was evaluated
+    public LocalDate getFirstDay() {
+        return firstDay;
+    }
+
+    public LocalDate getLastDay() {
+        return lastDay;
+    }
+
+    public int getDaysEvaluated() {
+        return firstDay == null ? 0 : (int) (lastDay.toEpochDay() - firstDay.toEpochDay() + 1);
+    }
+
+    public List<Penalty> getAssigned() {
+        return assigned;
+    }
+
+    public int getMissedObjectives() {
+        return missedObjectives;
+    }
+
+    @Override
+    public String toString() {
+        return getDaysEvaluated() == 0 ? "nothing to evaluate"
+                : getDaysEvaluated() + " day(s) " + firstDay + ".." + lastDay + ", "
+                + missedObjectives + " missed, " + assigned.size() + " penalties assigned";
+    }
+}
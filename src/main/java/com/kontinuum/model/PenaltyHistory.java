@@ -1,32 +1,159 @@
 package com.kontinuum.model;
 
+import com.kontinuum.service.PenaltyHistoryLog;
+
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 
+/**
+ * Completed and missed penalties, kept in an append-only {@link PenaltyHistoryLog} rather than
+ * in memory. Per-type counts are maintained as entries are logged and saved with the penalty
+ * snapshot, so statistics never scan the history.
+ */
 public class PenaltyHistory {
 
-    private final List<Penalty> completedPenalties = new ArrayList<>();
-    private final List<Penalty> missedPenalties = new ArrayList<>();
+    private final PenaltyHistoryLog log;
+    private final int[] completedByType = new int[Penalty.Type.values().length];
+    private final int[] missedByType = new int[Penalty.Type.values().length];
+    // Log position the counters include
+    private PenaltyHistoryLog.Position end;
+
+    public PenaltyHistory() {
+        this(PenaltyHistoryLog.openDefault());
+    }
+
+    public PenaltyHistory(PenaltyHistoryLog log) {
+        this.log = log;
+    }
 
     public void log(Penalty penalty) {
-        if (penalty.isCompleted()) {
-            completedPenalties.add(penalty);
-        } else {
-            missedPenalties.add(penalty);
+        log(penalty, LocalDate.now());
+    }
+
+    /**
+     * loggedOn picks the monthly segment; imports pass the original date to keep segments in
+     * time order. Callers should log in date order: a record put into an older segment than
+     * the newest one is counted now, but is not caught up on if the snapshot is lost.
+     */
+    public synchronized void log(Penalty penalty, LocalDate loggedOn) {
+        try {
+            // The saved end must never move back, or a restart would count the newer segments again
+            PenaltyHistoryLog.Position appended = log.append(penalty, loggedOn);
+            if (end == null || appended.compareTo(end) > 0) {
+                end = appended;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        count(penalty);
+    }
+
+    /**
+     * Restores counters saved at {@code savedEnd} and folds in anything appended to the log
+     * after that point (e.g. if the app stopped before the snapshot was written).
+     */
+    public synchronized void restore(Map<Penalty.Type, Integer> completedCounts, Map<Penalty.Type, Integer> missedCounts,
+                                     PenaltyHistoryLog.Position savedEnd) {
+        Arrays.fill(completedByType, 0);
+        Arrays.fill(missedByType, 0);
+        completedCounts.forEach((type, count) -> completedByType[type.ordinal()] = count);
+        missedCounts.forEach((type, count) -> missedByType[type.ordinal()] = count);
+        try {
+            log.readFrom(savedEnd, this::count);
+            end = log.end();
+        } catch (IOException e) {
+            e.printStackTrace();
+            end = savedEnd;
+        }
+    }
+
+    private void count(Penalty penalty) {
+        int[] counts = penalty.isCompleted() ? completedByType : missedByType;
+        counts[penalty.getType().ordinal()]++;
+    }
+
+    public synchronized int getCompletedCount(Penalty.Type type) {
+        return completedByType[type.ordinal()];
+    }
+
+    public synchronized int getMissedCount(Penalty.Type type) {
+        return missedByType[type.ordinal()];
+    }
+
+    public int getRepeatCountForType(Penalty.Type type) {
+        return getMissedCount(type);
+    }
+
+    public synchronized Map<Penalty.Type, Integer> getCompletedCounts() {
+        return toMap(completedByType);
+    }
+
+    public synchronized Map<Penalty.Type, Integer> getMissedCounts() {
+        return toMap(missedByType);
+    }
+
+    public synchronized PenaltyHistoryLog.Position getEnd() {
+        return end;
+    }
+
+    /**
+     * One page of history entries, newest first.
+     */
+    public List<Penalty> getPage(int page, int pageSize) {
+        try {
+            return log.readPage(page, pageSize);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return Collections.emptyList();
         }
     }
 
+    public int size() {
+        try {
+            return log.size();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    // Streams every entry, oldest first, without holding the history in memory
+    public void forEach(Consumer<Penalty> consumer) throws IOException {
+        log.readFrom(null, consumer);
+    }
+
+    // Full scans of the log; prefer getPage for display
     public List<Penalty> getAllCompleted() {
-        return completedPenalties;
+        return readAll(true);
     }
 
     public List<Penalty> getAllMissed() {
-        return missedPenalties;
+        return readAll(false);
     }
 
-    public int getRepeatCountForType(Penalty.Type type) {
-        long count = missedPenalties.stream()
-                .filter(p -> p.getType() == type)
-                .count();
-        return (int) count;
+    private List<Penalty> readAll(boolean completed) {
+        List<Penalty> penalties = new ArrayList<>();
+        try {
+            log.readFrom(null, penalty -> {
+                if (penalty.isCompleted() == completed) {
+                    penalties.add(penalty);
+                }
+            });
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return penalties;
+    }
+
+    private static Map<Penalty.Type, Integer> toMap(int[] counts) {
+        Map<Penalty.Type, Integer> map = new EnumMap<>(Penalty.Type.class);
+        for (Penalty.Type type : Penalty.Type.values()) {
+            if (counts[type.ordinal()] != 0) {
+                map.put(type, counts[type.ordinal()]);
+            }
+        }
+        return map;
     }
 }
@@ -0,0 +1,10 @@
+package com.kontinuum.model;
+
+/**
+ * Notified when objectives become locked (some penalty went overdue) or unlocked
+ * (the last overdue penalty was completed). Called on the thread that caused the change,
+ * which may be the penalty scheduler's background thread.
+ */
+public interface PenaltyLockListener {
+    void onLockStateChanged(boolean locked);
+}
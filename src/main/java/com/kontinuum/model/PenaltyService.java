@@ -1,12 +1,25 @@
 package com.kontinuum.model;
 
-import java.io.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.*;
-
+import java.util.concurrent.CompletableFuture;
+
+import com.kontinuum.event.DomainEvent;
+import com.kontinuum.event.EventBus;
+import com.kontinuum.jfr.PenaltyEvaluationEvent;
+import com.kontinuum.metrics.MetricsRegistry;
+import com.kontinuum.metrics.Timer;
+import com.kontinuum.service.CalendarProgressManager;
+import com.kontinuum.service.DataFileStore;
 import com.kontinuum.service.ObjectiveManager;
+import com.kontinuum.service.PenaltyDataStore;
+import com.kontinuum.service.PersistenceService;
 
 public class PenaltyService {
+    // Copying the state for a save; load, encode and write are timed in PenaltyDataStore
+    private static final Timer SNAPSHOT_TIME = MetricsRegistry.getDefault().timer("penalties.snapshot");
 
     private final Map<String, Penalty> activePenalties = new HashMap<>();
     private final List<Penalty.Type> penaltyOrder = List.of(
@@ -17,13 +30,16 @@ public class PenaltyService {
     private final PenaltyHistory history = new PenaltyHistory();
     private final PenaltyTracker tracker = new PenaltyTracker();
     private final MissedObjectiveTracker missedTracker = new MissedObjectiveTracker();
+    private final PenaltyDueIndex dueIndex = new PenaltyDueIndex(this::notifyLockStateChanged);
 
     private ObjectiveManager objectiveManager;
 
-    private LocalDate lastEvaluatedDate = null;
+    private volatile LocalDate lastEvaluatedDate = null;
 
-    private static final String EVAL_DATE_FILE = "lastEvaluatedDate.txt";
-    private static final String PENALTIES_FILE = "activePenalties.dat";
+    private PersistenceService persistenceService;
+    private EventBus eventBus;
+    // Copy taken on the caller's thread for the persistence thread to write
+    private volatile PenaltyDataStore.Snapshot pendingSnapshot;
 
     public PenaltyService(ObjectiveManager objectiveManager) {
         this.objectiveManager = objectiveManager;
@@ -31,93 +47,169 @@ public class PenaltyService {
         loadActivePenalties();
     }
 
-    // Persist lastEvaluatedDate to file
+    // Once set, penalty writes are coalesced on the persistence thread instead of happening inline
+    public void setPersistenceService(PersistenceService persistenceService) {
+        this.persistenceService = persistenceService;
+        persistenceService.register(DataFileStore.PENALTIES, () -> PenaltyDataStore.encode(pendingSnapshot));
+        persistenceService.register(DataFileStore.PENALTY_EVAL_DATE, this::encodeLastEvaluatedDate);
+    }
+
+    public void setEventBus(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    private void publish(DomainEvent event) {
+        if (eventBus != null) {
+            eventBus.publish(event);
+        }
+    }
+
+    // Persist lastEvaluatedDate to the data file
     private void saveLastEvaluatedDate() {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(EVAL_DATE_FILE))) {
-            if (lastEvaluatedDate != null) {
-                bw.write(lastEvaluatedDate.toString());
+        if (persistenceService != null) {
+            persistenceService.markDirty(DataFileStore.PENALTY_EVAL_DATE);
+        } else {
+            try {
+                DataFileStore.getDefault().commit(DataFileStore.PENALTY_EVAL_DATE, encodeLastEvaluatedDate());
+            } catch (IOException e) {
+                e.printStackTrace();
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
     }
 
+    private byte[] encodeLastEvaluatedDate() {
+        LocalDate date = lastEvaluatedDate;
+        return date == null ? new byte[0] : date.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
     private void loadLastEvaluatedDate() {
-        File file = new File(EVAL_DATE_FILE);
-        if (file.exists()) {
-            try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-                String line = br.readLine();
-                lastEvaluatedDate = LocalDate.parse(line);
-            } catch (Exception e) {
-                lastEvaluatedDate = null;
+        try {
+            String saved = DataFileStore.getDefault().readString(DataFileStore.PENALTY_EVAL_DATE);
+            if (saved != null && !saved.isBlank()) {
+                lastEvaluatedDate = LocalDate.parse(saved.trim());
             }
+        } catch (Exception e) {
+            lastEvaluatedDate = null;
         }
     }
 
-    // Simple serialization of active penalties for persistence (you can improve with Gson or other)
+    // Active penalties, history and repeat counts are saved together (see PenaltyDataStore)
     private void saveActivePenalties() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(PENALTIES_FILE))) {
-            oos.writeObject(activePenalties);
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (persistenceService != null) {
+            pendingSnapshot = snapshot();
+            persistenceService.markDirty(DataFileStore.PENALTIES);
+        } else {
+            PenaltyDataStore.save(snapshot());
+        }
+    }
+
+    private PenaltyDataStore.Snapshot snapshot() {
+        long begin = SNAPSHOT_TIME.start();
+        Map<Penalty.Type, Integer> repeatCounts = new EnumMap<>(Penalty.Type.class);
+        for (Penalty.Type type : Penalty.Type.values()) {
+            repeatCounts.put(type, tracker.getRepeatCount(type));
         }
+        PenaltyDataStore.Snapshot snapshot = new PenaltyDataStore.Snapshot(
+                new ArrayList<>(activePenalties.values()),
+                repeatCounts,
+                history.getCompletedCounts(),
+                history.getMissedCounts(),
+                missedTracker.getCurrentStreak(),
+                missedTracker.getLastEvaluated(),
+                history.getEnd());
+        SNAPSHOT_TIME.stop(begin);
+        return snapshot;
     }
 
-    @SuppressWarnings("unchecked")
     private void loadActivePenalties() {
-        File file = new File(PENALTIES_FILE);
-        if (file.exists()) {
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-                Object obj = ois.readObject();
-                if (obj instanceof Map) {
-                    activePenalties.clear();
-                    activePenalties.putAll((Map<String, Penalty>) obj);
-                }
-            } catch (Exception e) {
-                // Could not load, start fresh
-                activePenalties.clear();
-            }
+        PenaltyDataStore.Snapshot snapshot = PenaltyDataStore.load();
+        activePenalties.clear();
+        dueIndex.clear();
+        for (Penalty penalty : snapshot.active) {
+            activePenalties.put(penalty.getId(), penalty);
+            dueIndex.add(penalty);
+        }
+        snapshot.repeatCounts.forEach(tracker::setRepeatCount);
+        missedTracker.restore(snapshot.missedStreak, snapshot.streakEvaluatedDate);
+        history.restore(snapshot.completedCounts, snapshot.missedCounts, snapshot.historyEnd);
+
+        if (!snapshot.legacyCompleted.isEmpty() || !snapshot.legacyMissed.isEmpty()) {
+            // Older snapshots carried the whole history; move it into the log once, in date order
+            List<Penalty> legacy = new ArrayList<>(snapshot.legacyCompleted);
+            legacy.addAll(snapshot.legacyMissed);
+            legacy.sort(Comparator.comparing(Penalty::getAssignedDate));
+            legacy.forEach(penalty -> history.log(penalty, penalty.getAssignedDate()));
+            saveActivePenalties();
         }
     }
 
-    public Penalty assignPenalty(String penaltyId, Penalty.Type type, LocalDate date) {
+    public synchronized Penalty assignPenalty(String penaltyId, Penalty.Type type, LocalDate date) {
         int repeatCount = tracker.getRepeatCount(type);
         int amount = PenaltyRules.calculateAmount(type, repeatCount + 1);
         PenaltySeverity.Severity severity = PenaltyRules.determineSeverity(repeatCount + 1);
 
         Penalty penalty = new Penalty(penaltyId, date, date.plusDays(1), type, amount, repeatCount + 1, severity);
         activePenalties.put(penaltyId, penalty);
+        dueIndex.add(penalty);
         tracker.incrementMissed(type);
         saveActivePenalties();
+        publish(new DomainEvent.PenaltyAssigned(penaltyId));
 
         return penalty;
     }
 
-    public void completePenalty(String penaltyId) {
+    public synchronized void completePenalty(String penaltyId) {
         Penalty penalty = activePenalties.get(penaltyId);
         if (penalty != null) {
             penalty.markCompleted();
             tracker.reset(penalty.getType());
             history.log(penalty);
             activePenalties.remove(penaltyId);
+            dueIndex.remove(penalty);
             saveActivePenalties();
+            publish(new DomainEvent.PenaltyCompleted(penaltyId));
+        }
+    }
+
+    /**
+     * Adds penalties read back from an export, replacing active ones with the same id.
+     * Completed penalties are skipped; they belong in the history.
+     */
+    public synchronized void restoreActivePenalties(Collection<Penalty> penalties) {
+        List<Penalty> restored = new ArrayList<>();
+        for (Penalty penalty : penalties) {
+            if (penalty.isCompleted()) continue;
+            Penalty previous = activePenalties.put(penalty.getId(), penalty);
+            if (previous != null) {
+                dueIndex.remove(previous);
+            }
+            restored.add(penalty);
         }
+        dueIndex.addAll(restored);
+        saveActivePenalties();
+        restored.forEach(penalty -> publish(new DomainEvent.PenaltyAssigned(penalty.getId())));
     }
 
-    public Collection<Penalty> getActivePenalties() {
-        return activePenalties.values();
+    // A copy, since evaluation may add penalties from a background thread
+    public synchronized Collection<Penalty> getActivePenalties() {
+        return new ArrayList<>(activePenalties.values());
     }
 
-    // Return true if any active penalty is NOT completed and overdue
+    // Return true if any active penalty is NOT completed and overdue (kept up to date by dueIndex)
     public boolean hasActivePenalties() {
-        return activePenalties.values().stream().anyMatch(p -> !p.isCompleted() && p.isOverdue());
+        return dueIndex.isLocked();
+    }
+
+    // Penalties go overdue on the due index's timer thread; subscribers hear it through the bus
+    private void notifyLockStateChanged(boolean locked) {
+        publish(new DomainEvent.PenaltyLockChanged(locked));
     }
 
     public boolean hasBeenEvaluatedToday(LocalDate today) {
         return lastEvaluatedDate != null && lastEvaluatedDate.equals(today);
     }
 
-    public void markEvaluatedToday(LocalDate today) {
+    public synchronized void markEvaluatedToday(LocalDate today) {
         lastEvaluatedDate = today;
         saveLastEvaluatedDate();
     }
@@ -135,19 +227,82 @@ public class PenaltyService {
      * Evaluate penalties once per day based on the progress of the **previous day**.
      * Assign penalties for any missed objectives from yesterday.
      */
-    public List<Penalty> evaluateDailyPenalty(DailyProgress progress, LocalDate evaluationDate) {
+    public synchronized List<Penalty> evaluateDailyPenalty(DailyProgress progress, LocalDate evaluationDate) {
         if (hasBeenEvaluatedToday(evaluationDate)) return Collections.emptyList();
 
+        PenaltyEvaluationEvent event = new PenaltyEvaluationEvent();
+        event.begin();
         List<Penalty> assigned = new ArrayList<>();
-
         int missed = progress.getTotalTasks() - progress.getCompletedTasks();
-        missedTracker.evaluateDay(missed, evaluationDate.minusDays(1));
-        int streak = missedTracker.getCurrentStreak();
+        assignForMissedDay(missed, evaluationDate.minusDays(1), assigned);
+        dueIndex.addAll(assigned);
+        assigned.forEach(penalty -> publish(new DomainEvent.PenaltyAssigned(penalty.getId())));
+
+        markEvaluatedToday(evaluationDate);
+        saveActivePenalties();
+        commitEvaluation(event, evaluationDate.minusDays(1), 1, Math.max(0, missed), assigned.size());
+        return assigned;
+    }
+
+    /**
+     * Evaluates every day since the last evaluation (lastEvaluatedDate up to yesterday) in
+     * one pass over the objectives' completion bitmaps, then saves once. Without a previous
+     * evaluation only yesterday is looked at. Gaps of months cost one range scan, not one
+     * scan per day.
+     */
+    public synchronized PenaltyEvaluationResult evaluateMissedDays(LocalDate today) {
+        if (hasBeenEvaluatedToday(today)) return PenaltyEvaluationResult.none();
+
+        LocalDate firstDay = lastEvaluatedDate != null ? lastEvaluatedDate : today.minusDays(1);
+        LocalDate lastDay = today.minusDays(1);
+        if (firstDay.isAfter(lastDay)) {
+            // Clock moved backwards since the last evaluation; nothing sensible to catch up on
+            markEvaluatedToday(today);
+            return PenaltyEvaluationResult.none();
+        }
+
+        PenaltyEvaluationEvent event = new PenaltyEvaluationEvent();
+        event.begin();
+        ProgressRange range = CalendarProgressManager.computeRange(objectiveManager.getObjectives(), firstDay, lastDay);
+        List<Penalty> assigned = new ArrayList<>();
+        int missedTotal = 0;
+        for (int i = 0; i < range.size(); i++) {
+            int missed = range.getTotalTasks() - range.getCompleted(i);
+            missedTotal += Math.max(0, missed);
+            assignForMissedDay(missed, firstDay.plusDays(i), assigned);
+        }
+        dueIndex.addAll(assigned);
+        assigned.forEach(penalty -> publish(new DomainEvent.PenaltyAssigned(penalty.getId())));
 
-        if (missed <= 0) {
-            markEvaluatedToday(evaluationDate);
-            return assigned;
+        markEvaluatedToday(today);
+        saveActivePenalties();
+        commitEvaluation(event, firstDay, range.size(), missedTotal, assigned.size());
+        return new PenaltyEvaluationResult(firstDay, lastDay, assigned, missedTotal);
+    }
+
+    // The event covers the scan, the new penalties and the save
+    private static void commitEvaluation(PenaltyEvaluationEvent event, LocalDate firstDay, int days,
+                                         int missed, int assigned) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.firstDay = firstDay.toString();
+            event.days = days;
+            event.missedObjectives = missed;
+            event.penaltiesAssigned = assigned;
+            event.commit();
         }
+    }
+
+    // Runs evaluateMissedDays on a background virtual thread
+    public CompletableFuture<PenaltyEvaluationResult> evaluateMissedDaysAsync() {
+        return CompletableFuture.supplyAsync(() -> evaluateMissedDays(LocalDate.now()),
+                task -> Thread.ofVirtual().name("kontinuum-penalty-evaluation").start(task));
+    }
+
+    // Updates the streak for one day and creates its penalties; the caller indexes and saves them
+    private void assignForMissedDay(int missed, LocalDate day, List<Penalty> assigned) {
+        missedTracker.evaluateDay(missed, day);
+        int streak = missedTracker.getCurrentStreak();
 
         for (int i = 0; i < missed; i++) {
             Penalty.Type type = penaltyOrder.get(i % penaltyOrder.size());
@@ -157,8 +312,8 @@ public class PenaltyService {
 
             Penalty penalty = new Penalty(
                     UUID.randomUUID().toString(),
-                    evaluationDate.minusDays(1),
-                    evaluationDate,
+                    day,
+                    day.plusDays(1),
                     type,
                     amount,
                     repeatCount,
@@ -169,31 +324,14 @@ public class PenaltyService {
             tracker.incrementMissed(type);
             assigned.add(penalty);
         }
-
-        markEvaluatedToday(evaluationDate);
-        saveActivePenalties();
-        return assigned;
     }
 
     /**
-     * Call this on app start to evaluate penalties once per day, based on yesterday's objectives.
+     * Call this on app start to evaluate penalties once per day. Catches up on every day
+     * missed since the last evaluation, not just yesterday (see {@link #evaluateMissedDays}).
      */
     public List<Penalty> evaluateYesterdayPenalties() {
-        LocalDate today = LocalDate.now();
-        if (hasBeenEvaluatedToday(today)) return Collections.emptyList();
-
-        LocalDate yesterday = today.minusDays(1);
-        List<Objective> objectives = objectiveManager.getObjectives();
-        int completed = 0;
-
-        for (Objective obj : objectives) {
-            if (obj.isCompleted(yesterday)) {
-                completed++;
-            }
-        }
-
-        DailyProgress progress = new DailyProgress(yesterday, completed, objectives.size());
-        return evaluateDailyPenalty(progress, today);
+        return evaluateMissedDays(LocalDate.now()).getAssigned();
     }
 
     public void setObjectiveManager(ObjectiveManager objectiveManager) {
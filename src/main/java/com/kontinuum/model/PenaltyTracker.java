@@ -1,16 +1,20 @@
 package com.kontinuum.model;
 
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
 
 public class PenaltyTracker {
 
-    private final Map<Penalty.Type, Integer> repeatMap = new HashMap<>();
+    private final Map<Penalty.Type, Integer> repeatMap = new EnumMap<>(Penalty.Type.class);
 
     public void incrementMissed(Penalty.Type type) {
         repeatMap.put(type, repeatMap.getOrDefault(type, 0) + 1);
     }
 
+    public void setRepeatCount(Penalty.Type type, int count) {
+        repeatMap.put(type, count);
+    }
+
     public void reset(Penalty.Type type) {
         repeatMap.put(type, 0);
     }
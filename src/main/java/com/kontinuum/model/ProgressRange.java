@@ -0,0 +1,52 @@
+package com.kontinuum.model;
+
+import java.time.LocalDate;
+
+/**
+ * Completed/total objective counts for a contiguous range of days.
+ * Counts are kept in a primitive array indexed by day offset from {@link #getStart()}.
+ */
+public class ProgressRange {
+    private final LocalDate start;
+    private final int[] completedCounts;
+    private final int totalTasks;
+
+    public ProgressRange(LocalDate start, int[] completedCounts, int totalTasks) {
+        this.start = start;
+        this.completedCounts = completedCounts;
+        this.totalTasks = totalTasks;
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public LocalDate getEnd() {
+        return start.plusDays(completedCounts.length - 1L);
+    }
+
+    public int size() {
+        return completedCounts.length;
+    }
+
+    public int getCompleted(int dayIndex) {
+        return completedCounts[dayIndex];
+    }
+
+    public int getTotalTasks() {
+        return totalTasks;
+    }
+
+    public double getCompletionRatio(int dayIndex) {
+        return totalTasks == 0 ? 0 : (double) completedCounts[dayIndex] / totalTasks;
+    }
+
+    // Backing array, not a copy; callers must not modify it
+    public int[] getCompletedCounts() {
+        return completedCounts;
+    }
+
+    public DailyProgress toDailyProgress(int dayIndex) {
+        return new DailyProgress(start.plusDays(dayIndex), completedCounts[dayIndex], totalTasks);
+    }
+}
@@ -0,0 +1,79 @@
+package com.kontinuum.model;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * XP curve backed by a precomputed threshold table.
+ * xpForLevel is an array read and levelForXp is a binary search, so the cost of either
+ * call doesn't depend on how much XP a category has.
+ */
+public class TableXpCurve implements XpCurve {
+    // thresholds[i] = XP needed for level i + 1; one extra entry past the max level
+    private final int[] thresholds;
+
+    public TableXpCurve(int maxLevel, IntToDoubleFunction xpForLevel) {
+        if (maxLevel < 1) {
+            throw new IllegalArgumentException("maxLevel must be at least 1: " + maxLevel);
+        }
+        thresholds = new int[maxLevel + 1];
+        for (int level = 2; level <= maxLevel + 1; level++) {
+            long xp = Math.round(xpForLevel.applyAsDouble(level));
+            // Keep the table monotonic so the binary search stays well defined
+            thresholds[level - 1] = (int) Math.max(thresholds[level - 2], Math.min(Integer.MAX_VALUE, xp));
+        }
+    }
+
+    /**
+     * Level L needs round(base * (L - 1)^exponent) XP; the table stops at the last level
+     * reachable with maxXp. This is the curve categories have always used for level-ups.
+     */
+    public static TableXpCurve power(double base, double exponent, int maxXp) {
+        int maxLevel = 1;
+        while (Math.round(base * Math.pow(maxLevel, exponent)) <= maxXp) {
+            maxLevel++;
+        }
+        return new TableXpCurve(maxLevel, level -> base * Math.pow(level - 1, exponent));
+    }
+
+    /**
+     * The level is maxLevel * (xp / maxXp)^(1 / gamma) rounded to the nearest level, so maxXp
+     * lands on maxLevel and level L starts half a level early, at L - 0.5.
+     * This is how the overall level has always been shown.
+     */
+    public static TableXpCurve roundedGamma(int maxXp, int maxLevel, double gamma) {
+        return new TableXpCurve(maxLevel, level -> {
+            long xp = Math.max(0, (long) Math.floor(maxXp * Math.pow((level - 0.5) / maxLevel, gamma)) - 1);
+            // Step from just below the estimate so floating-point noise can't shift a threshold by one
+            while (Math.round(maxLevel * Math.pow((double) xp / maxXp, 1.0 / gamma)) < level) {
+                xp++;
+            }
+            return xp;
+        });
+    }
+
+    @Override
+    public int getMaxLevel() {
+        return thresholds.length - 1;
+    }
+
+    @Override
+    public int xpForLevel(int level) {
+        if (level <= 1) return 0;
+        return thresholds[Math.min(level, thresholds.length) - 1];
+    }
+
+    @Override
+    public int levelForXp(int xp) {
+        int index = Arrays.binarySearch(thresholds, 0, getMaxLevel(), xp);
+        if (index < 0) {
+            index = -index - 2; // insertion point - 1: last threshold below xp
+        } else {
+            // Several levels can share a threshold at the very start of a curve; take the highest
+            while (index + 1 < getMaxLevel() && thresholds[index + 1] == xp) {
+                index++;
+            }
+        }
+        return Math.max(1, index + 1);
+    }
+}
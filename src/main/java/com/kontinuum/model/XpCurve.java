@@ -0,0 +1,21 @@
+package com.kontinuum.model;
+
+/**
+ * Maps between total XP and level. Implementations must be exact inverses of each other:
+ * levelForXp(xpForLevel(n)) == n for every level in [1, getMaxLevel()].
+ */
+public interface XpCurve {
+
+    int getMaxLevel();
+
+    /**
+     * Minimum total XP needed to be at the given level. Level 1 always needs 0 XP;
+     * asking for getMaxLevel() + 1 gives the threshold the max level would roll over at.
+     */
+    int xpForLevel(int level);
+
+    /**
+     * Highest level whose threshold is at or below the given XP, clamped to [1, getMaxLevel()].
+     */
+    int levelForXp(int xp);
+}
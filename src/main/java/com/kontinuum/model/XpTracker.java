@@ -1,48 +1,63 @@
 package com.kontinuum.model;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * XP of one category. The value is a single atomic counter clamped to [0, maxXp], so
+ * concurrent adds and removals never lose updates; the level is derived from it on read.
+ */
 public class XpTracker {
-    private int xp;
-    private int level;
+    private final AtomicInteger xp = new AtomicInteger();
     private final int maxXp;
-    private final int maxLevel = 100;
-    private final double gamma = 2.0;
+    private final XpCurve curve;
 
-    public XpTracker(int maxXp) {
-        this.xp = 0;
+    public XpTracker(int maxXp, XpCurve curve) {
         this.maxXp = maxXp;
-        this.level = 1;
+        this.curve = curve;
     }
 
     public void addXp(int amount) {
-        setXp(Math.min(maxXp, xp + amount));
+        getAndAddXp(amount);
     }
 
     public void subtractXp(int amount) {
-        setXp(Math.max(0, xp - amount));
+        getAndAddXp(-amount);
+    }
+
+    /**
+     * Adds (or with a negative amount removes) XP, clamped to [0, maxXp].
+     *
+     * @return the XP before this change, so callers can tell which levels were crossed
+     */
+    public int getAndAddXp(int amount) {
+        return xp.getAndUpdate(current -> clamp((long) current + amount));
     }
 
     public void setXp(int newXp) {
-        this.xp = newXp;
-        recalculateLevel();
+        xp.set(clamp(newXp));
     }
 
-    private void recalculateLevel() {
-        double ratio = (double) xp / maxXp;
-        double rawLevel = maxLevel * Math.pow(ratio, 1.0 / gamma);
-        level = (int) Math.max(1, Math.min(maxLevel, Math.floor(rawLevel)));
+    private int clamp(long value) {
+        return (int) Math.max(0, Math.min(maxXp, value));
     }
 
     public int getXp() {
-        return xp;
+        return xp.get();
     }
 
     public int getLevel() {
-        return level;
+        return curve.levelForXp(xp.get());
+    }
+
+    public XpCurve getCurve() {
+        return curve;
     }
 
     public int getXpToNextLevel() {
-        if (level >= maxLevel) return 0;
-        return getXpForLevel(level + 1) - xp;
+        int current = xp.get();
+        int level = curve.levelForXp(current);
+        if (level >= curve.getMaxLevel()) return 0;
+        return getXpForLevel(level + 1) - current;
     }
 
     /**
@@ -50,8 +65,7 @@ public class XpTracker {
      * based on the nonlinear formula used for leveling.
      */
     public int getXpForLevel(int targetLevel) {
-        double ratio = (double) targetLevel / maxLevel;
-        return (int) (maxXp * Math.pow(ratio, gamma));
+        return curve.xpForLevel(targetLevel);
     }
 
 }
@@ -0,0 +1,617 @@
+package com.kontinuum.server;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonWriter;
+import com.kontinuum.AppBootstrap;
+import com.kontinuum.model.BulkCompletionResult;
+import com.kontinuum.model.CompletionChange;
+import com.kontinuum.model.Mission;
+import com.kontinuum.model.Objective;
+import com.kontinuum.model.ObjectiveCategory;
+import com.kontinuum.model.Penalty;
+import com.kontinuum.service.CategoryCompletionManager;
+import com.kontinuum.service.CategoryXpManager;
+import com.kontinuum.service.JsonCodecs;
+import com.kontinuum.service.MissionManager;
+import com.kontinuum.service.PersistenceService;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local JSON API over the same services as the JavaFX window, for scripts and other tools.
+ * Started with {@code --headless [--port=8765]}; binds to the loopback address only.
+ * Each request runs on its own virtual thread and calls the (thread-safe) managers directly.
+ * <p>
+ * Loopback alone doesn't keep out web pages open in the user's browser, so requests must
+ * name a loopback Host (no DNS rebinding), must not carry a foreign Origin, and anything but
+ * GET must be sent as {@code Content-Type: application/json}, which browsers never send
+ * cross-site without a CORS preflight (and preflights are not answered).
+ *
+ * <pre>
+ * GET  /objectives[?date=2025-07-21]
+ * PUT  /objectives/{id}/completion        {"date": "2025-07-21", "completed": true}
+ * POST /objectives/completions            {"changes": [{"id": "...", "date": "2025-07-21", "completed": true}, ...]}
+ * GET  /xp
+ * POST /xp                                {"category": "HEALTH", "amount": 30}
+ * GET  /missions
+ * POST /missions/{id}/accept
+ * POST /missions/{id}/complete
+ * GET  /penalties
+ * GET  /penalties/history[?page=0]
+ * POST /penalties/{id}/complete
+ * </pre>
+ */
+public class HeadlessServer {
+    public static final int DEFAULT_PORT = 8765;
+    private static final int HISTORY_PAGE_SIZE = 20;
+    // Dates further than this from today are rejected; they can only be typos or attacks
+    private static final int MAX_YEARS_FROM_TODAY = 100;
+    private static final String JSON = "application/json";
+
+    private final AppBootstrap.Services services;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    static {
+        // Headers and body go out as separate writes; with Nagle on, the body waits for the
+        // client's delayed ACK and every response takes ~40 ms. Read once when the first server is created.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private interface JsonBody {
+        void write(JsonWriter out) throws IOException;
+    }
+
+    // Ends a request with an HTTP error status and {"error": message}
+    private static class ApiException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    public HeadlessServer(AppBootstrap.Services services, int port) throws IOException {
+        this.services = services;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Loads the data and starts serving on {@code port} (0 picks a free port).
+     */
+    public static HeadlessServer launch(int port) throws IOException {
+        AppBootstrap.Services services = AppBootstrap.load(new CategoryCompletionManager(), new PersistenceService()).join();
+        HeadlessServer headless = new HeadlessServer(services, port);
+        headless.start();
+        return headless;
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Stops accepting requests and flushes everything to disk
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+        services.objectiveManager.compactJournal();
+        services.persistenceService.shutdown();
+    }
+
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--port=")) {
+                port = Integer.parseInt(args[i].substring("--port=".length()));
+            } else if (args[i].equals("--port") && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            }
+        }
+
+        try {
+            HeadlessServer headless = launch(port);
+            Runtime.getRuntime().addShutdownHook(new Thread(headless::stop, "kontinuum-shutdown"));
+            System.out.println("Kontinuum API listening on http://localhost:" + headless.getPort());
+        } catch (IOException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] request = exchange.getRequestBody().readAllBytes();
+            int status = 200;
+            byte[] response;
+            try {
+                checkCaller(exchange);
+                response = render(route(exchange, request));
+            } catch (ApiException e) {
+                status = e.status;
+                response = render(error(e.getMessage()));
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                status = 500;
+                response = render(error("Internal error"));
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, response.length);
+            exchange.getResponseBody().write(response);
+        }
+    }
+
+    // Rejects requests a web page could have made on the user's behalf
+    private static void checkCaller(HttpExchange exchange) throws ApiException {
+        Headers headers = exchange.getRequestHeaders();
+        String host = headers.getFirst("Host");
+        if (host == null || !isLoopbackName(stripPort(host))) {
+            throw new ApiException(403, "Host must be localhost");
+        }
+        String origin = headers.getFirst("Origin");
+        if (origin != null && !isLoopbackOrigin(origin)) {
+            throw new ApiException(403, "Cross-origin requests are not allowed");
+        }
+        if (!exchange.getRequestMethod().equals("GET")) {
+            String contentType = headers.getFirst("Content-Type");
+            if (contentType == null || !contentType.toLowerCase().startsWith(JSON)) {
+                throw new ApiException(415, "Send requests with Content-Type: " + JSON);
+            }
+        }
+    }
+
+    private static boolean isLoopbackOrigin(String origin) {
+        try {
+            URI uri = new URI(origin);
+            return "http".equals(uri.getScheme()) && uri.getHost() != null && isLoopbackName(uri.getHost());
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
+
+    private static String stripPort(String host) {
+        if (host.startsWith("[")) {
+            int close = host.indexOf(']');
+            return close < 0 ? host : host.substring(0, close + 1);
+        }
+        int colon = host.indexOf(':');
+        return colon < 0 ? host : host.substring(0, colon);
+    }
+
+    private static boolean isLoopbackName(String host) {
+        return host.equalsIgnoreCase("localhost") || host.equals("127.0.0.1") || host.equals("[::1]");
+    }
+
+    private JsonBody route(HttpExchange exchange, byte[] request) throws IOException, ApiException {
+        String method = exchange.getRequestMethod();
+        URI uri = exchange.getRequestURI();
+        String[] path = uri.getPath().replaceAll("^/+|/+$", "").split("/");
+        Map<String, String> query = parseQuery(uri.getRawQuery());
+
+        switch (path[0]) {
+            case "objectives":
+                if (path.length == 1) {
+                    requireMethod(method, "GET");
+                    return listObjectives(parseDate(query.get("date")));
+                }
+                if (path.length == 2 && path[1].equals("completions")) {
+                    requireMethod(method, "POST");
+                    return applyCompletions(parseBody(request));
+                }
+                if (path.length == 3 && path[2].equals("completion")) {
+                    requireMethod(method, "PUT");
+                    return setCompletion(path[1], parseBody(request));
+                }
+                break;
+            case "xp":
+                if (path.length == 1 && method.equals("POST")) {
+                    return addXp(parseBody(request));
+                }
+                if (path.length == 1) {
+                    requireMethod(method, "GET");
+                    return xp(null);
+                }
+                break;
+            case "missions":
+                if (path.length == 1) {
+                    requireMethod(method, "GET");
+                    List<Mission> missions = services.missionManager.getAllMissions();
+                    return out -> JsonCodecs.missions().write(out, missions);
+                }
+                if (path.length == 3 && (path[2].equals("accept") || path[2].equals("complete"))) {
+                    requireMethod(method, "POST");
+                    return updateMission(path[1], path[2].equals("complete"));
+                }
+                break;
+            case "penalties":
+                if (path.length == 1) {
+                    requireMethod(method, "GET");
+                    return penalties();
+                }
+                if (path.length == 2 && path[1].equals("history")) {
+                    requireMethod(method, "GET");
+                    return penaltyHistory(parseInt(query.get("page"), 0));
+                }
+                if (path.length == 3 && path[2].equals("complete")) {
+                    requireMethod(method, "POST");
+                    return completePenalty(path[1]);
+                }
+                break;
+            default:
+                break;
+        }
+        throw new ApiException(404, "No such endpoint: " + method + " " + uri.getPath());
+    }
+
+    private JsonBody listObjectives(LocalDate date) {
+        List<Objective> objectives = services.objectiveManager.getObjectives();
+        return out -> {
+            out.beginObject();
+            out.name("date").value(date.toString());
+            out.name("objectives").beginArray();
+            for (Objective objective : objectives) {
+                writeObjective(out, objective, date);
+            }
+            out.endArray();
+            out.endObject();
+        };
+    }
+
+    // Same steps as ticking the checkbox in the window, except XP only moves if the state changed
+    private JsonBody setCompletion(String id, JsonObject body) throws ApiException {
+        Objective objective = findObjective(id);
+        LocalDate date = parseDate(body.has("date") ? field(body, "date").getAsString() : null);
+        JsonPrimitive completedField = field(body, "completed");
+        if (!completedField.isBoolean()) {
+            throw new ApiException(400, "\"completed\" must be true or false");
+        }
+        boolean completed = completedField.getAsBoolean();
+        if (services.penaltyService.hasActivePenalties()) {
+            throw new ApiException(409, "Complete all overdue penalties before checking off objectives");
+        }
+
+        CategoryXpManager.LevelUpInfo levelUp = null;
+        boolean changed = services.objectiveManager.setObjectiveCompleted(objective, date, completed);
+        if (changed) {
+            CategoryCompletionManager counts = services.completionManager;
+            if (completed) {
+                counts.incrementCompletedCount(objective.getCategory());
+                levelUp = services.xpManager.addXp(objective.getCategory(), objective.getXpReward());
+            } else {
+                counts.decrementCompletedCount(objective.getCategory());
+                services.xpManager.removeXp(objective.getCategory(), objective.getXpReward());
+            }
+            services.calendarProgressManager.objectiveStateChanged(objective, date, completed);
+        }
+
+        CategoryXpManager.LevelUpInfo levelUpInfo = levelUp;
+        return out -> {
+            out.beginObject();
+            out.name("changed").value(changed);
+            out.name("objective");
+            writeObjective(out, objective, date);
+            writeLevelUp(out, levelUpInfo);
+            out.endObject();
+        };
+    }
+
+    // All changes or none: every entry is validated before the batch is applied in one transaction
+    private JsonBody applyCompletions(JsonObject body) throws ApiException {
+        JsonElement changesField = body.get("changes");
+        if (changesField == null || !changesField.isJsonArray()) {
+            throw new ApiException(400, "\"changes\" must be an array");
+        }
+        Map<String, Objective> byId = new HashMap<>();
+        for (Objective objective : services.objectiveManager.getObjectives()) {
+            byId.put(objective.getId(), objective);
+        }
+        List<CompletionChange> changes = new ArrayList<>();
+        for (JsonElement element : changesField.getAsJsonArray()) {
+            if (!element.isJsonObject()) {
+                throw new ApiException(400, "Each change must be an object");
+            }
+            JsonObject change = element.getAsJsonObject();
+            String id = field(change, "id").getAsString();
+            Objective objective = byId.get(id);
+            if (objective == null) {
+                throw new ApiException(404, "No objective with id " + id);
+            }
+            LocalDate date = parseDate(change.has("date") ? field(change, "date").getAsString() : null);
+            JsonPrimitive completedField = field(change, "completed");
+            if (!completedField.isBoolean()) {
+                throw new ApiException(400, "\"completed\" must be true or false");
+            }
+            changes.add(new CompletionChange(objective, date, completedField.getAsBoolean()));
+        }
+        if (services.penaltyService.hasActivePenalties()) {
+            throw new ApiException(409, "Complete all overdue penalties before checking off objectives");
+        }
+
+        BulkCompletionResult result = services.objectiveManager.applyCompletions(changes);
+        CategoryCompletionManager counts = services.completionManager;
+        for (CompletionChange change : result.getApplied()) {
+            if (change.completed()) {
+                counts.incrementCompletedCount(change.objective().getCategory());
+            } else {
+                counts.decrementCompletedCount(change.objective().getCategory());
+            }
+        }
+        List<CategoryXpManager.LevelUpInfo> levelUps = services.xpManager.applyXpDeltas(result.getXpDelta());
+        services.calendarProgressManager.completionsChanged(result);
+
+        return out -> {
+            out.beginObject();
+            out.name("requested").value(result.getRequested());
+            out.name("applied").value(result.getApplied().size());
+            out.name("xpDelta").beginObject();
+            for (Map.Entry<ObjectiveCategory, Integer> delta : result.getXpDelta().entrySet()) {
+                out.name(delta.getKey().name()).value(delta.getValue());
+            }
+            out.endObject();
+            out.name("levelUps").beginArray();
+            for (CategoryXpManager.LevelUpInfo levelUp : levelUps) {
+                out.beginObject();
+                out.name("category").value(levelUp.category.name());
+                out.name("newLevel").value(levelUp.newLevel);
+                out.name("newTotalXp").value(levelUp.newTotalXp);
+                out.endObject();
+            }
+            out.endArray();
+            out.endObject();
+        };
+    }
+
+    private JsonBody addXp(JsonObject body) throws ApiException {
+        ObjectiveCategory category = parseCategory(field(body, "category").getAsString());
+        JsonPrimitive amountField = field(body, "amount");
+        int amount = amountField.isNumber() ? amountField.getAsInt() : 0;
+        if (amount <= 0) {
+            throw new ApiException(400, "amount must be positive");
+        }
+        return xp(services.xpManager.addXp(category, amount));
+    }
+
+    private JsonBody xp(CategoryXpManager.LevelUpInfo levelUp) {
+        CategoryXpManager xp = services.xpManager;
+        int totalXp = xp.getTotalXp();
+        int totalLevel = xp.getTotalLevelCapped();
+        Map<ObjectiveCategory, int[]> categories = new HashMap<>();
+        for (ObjectiveCategory category : ObjectiveCategory.values()) {
+            categories.put(category, new int[] {
+                    xp.getTracker(category).getXp(), xp.getCategoryLevel(category), xp.getXpToNextLevel(category)});
+        }
+        return out -> {
+            out.beginObject();
+            out.name("totalXp").value(totalXp);
+            out.name("totalLevel").value(totalLevel);
+            out.name("categories").beginObject();
+            for (ObjectiveCategory category : ObjectiveCategory.values()) {
+                int[] values = categories.get(category);
+                out.name(category.name()).beginObject();
+                out.name("xp").value(values[0]);
+                out.name("level").value(values[1]);
+                out.name("xpToNextLevel").value(values[2]);
+                out.endObject();
+            }
+            out.endObject();
+            writeLevelUp(out, levelUp);
+            out.endObject();
+        };
+    }
+
+    // Completing awards the mission's XP, as the Complete button on the board does
+    private JsonBody updateMission(String id, boolean complete) throws ApiException {
+        MissionManager missions = services.missionManager;
+        Mission mission = findMission(id);
+
+        CategoryXpManager.LevelUpInfo levelUp = null;
+        if (complete) {
+            if (!missions.completeMission(mission)) {
+                throw new ApiException(409, "Only accepted, uncompleted missions can be completed");
+            }
+            ObjectiveCategory category = MissionManager.xpCategoryFor(mission.category);
+            if (category != null) {
+                levelUp = services.xpManager.addXp(category, mission.xpReward);
+            }
+        } else if (!missions.acceptMission(mission) && !findMission(id).isAccepted) {
+            throw new ApiException(409, "Mission is completed or the accepted limit is reached");
+        }
+
+        Mission updated = findMission(id);
+        CategoryXpManager.LevelUpInfo levelUpInfo = levelUp;
+        return out -> {
+            out.beginObject();
+            out.name("mission");
+            JsonCodecs.gson().getAdapter(Mission.class).write(out, updated);
+            writeLevelUp(out, levelUpInfo);
+            out.endObject();
+        };
+    }
+
+    private Mission findMission(String id) throws ApiException {
+        for (Mission mission : services.missionManager.getAllMissions()) {
+            if (id.equals(mission.id)) return mission;
+        }
+        throw new ApiException(404, "No mission with id " + id);
+    }
+
+    private JsonBody penalties() {
+        boolean locked = services.penaltyService.hasActivePenalties();
+        List<Penalty> active = new ArrayList<>(services.penaltyService.getActivePenalties());
+        return out -> {
+            out.beginObject();
+            out.name("locked").value(locked);
+            out.name("active");
+            JsonCodecs.penalties().write(out, active);
+            out.endObject();
+        };
+    }
+
+    private JsonBody penaltyHistory(int page) {
+        List<Penalty> entries = services.penaltyService.getHistory().getPage(page, HISTORY_PAGE_SIZE);
+        int total = services.penaltyService.getHistory().size();
+        return out -> {
+            out.beginObject();
+            out.name("page").value(page);
+            out.name("pageSize").value(HISTORY_PAGE_SIZE);
+            out.name("total").value(total);
+            out.name("entries");
+            JsonCodecs.penalties().write(out, entries);
+            out.endObject();
+        };
+    }
+
+    private JsonBody completePenalty(String id) throws ApiException {
+        boolean active = services.penaltyService.getActivePenalties().stream().anyMatch(p -> p.getId().equals(id));
+        if (!active) {
+            throw new ApiException(404, "No active penalty with id " + id);
+        }
+        services.penaltyService.completePenalty(id);
+        return penalties();
+    }
+
+    private Objective findObjective(String id) throws ApiException {
+        for (Objective objective : services.objectiveManager.getObjectives()) {
+            if (id.equals(objective.getId())) return objective;
+        }
+        throw new ApiException(404, "No objective with id " + id);
+    }
+
+    private static void writeObjective(JsonWriter out, Objective objective, LocalDate date) throws IOException {
+        out.beginObject();
+        out.name("id").value(objective.getId());
+        out.name("description").value(objective.getDescription());
+        out.name("category").value(objective.getCategory() != null ? objective.getCategory().name() : null);
+        out.name("xpReward").value(objective.getXpReward());
+        out.name("completed").value(objective.isCompleted(date));
+        out.endObject();
+    }
+
+    private static void writeLevelUp(JsonWriter out, CategoryXpManager.LevelUpInfo levelUp) throws IOException {
+        if (levelUp == null) return;
+        out.name("levelUp").beginObject();
+        out.name("category").value(levelUp.category.name());
+        out.name("newLevel").value(levelUp.newLevel);
+        out.name("newTotalXp").value(levelUp.newTotalXp);
+        out.endObject();
+    }
+
+    private static JsonBody error(String message) {
+        return out -> {
+            out.beginObject();
+            out.name("error").value(message);
+            out.endObject();
+        };
+    }
+
+    private static byte[] render(JsonBody body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (JsonWriter out = new JsonWriter(new OutputStreamWriter(bytes, StandardCharsets.UTF_8))) {
+            body.write(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static JsonObject parseBody(byte[] request) throws ApiException {
+        JsonElement element;
+        try {
+            element = JsonParser.parseString(new String(request, StandardCharsets.UTF_8));
+        } catch (JsonParseException e) {
+            throw new ApiException(400, "Malformed JSON body");
+        }
+        if (!element.isJsonObject()) {
+            throw new ApiException(400, "Expected a JSON object body");
+        }
+        return element.getAsJsonObject();
+    }
+
+    // A primitive member of the request body
+    private static JsonPrimitive field(JsonObject body, String name) throws ApiException {
+        JsonElement value = body.get(name);
+        if (value == null || !value.isJsonPrimitive()) {
+            throw new ApiException(400, "Missing or invalid \"" + name + "\"");
+        }
+        return value.getAsJsonPrimitive();
+    }
+
+    private static void requireMethod(String method, String expected) throws ApiException {
+        if (!method.equals(expected)) {
+            throw new ApiException(405, "Use " + expected);
+        }
+    }
+
+    private static LocalDate parseDate(String text) throws ApiException {
+        LocalDate today = LocalDate.now();
+        if (text == null || text.isEmpty()) return today;
+        LocalDate date;
+        try {
+            date = JsonCodecs.parseDate(text);
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Bad date: " + text);
+        }
+        if (date.isBefore(today.minusYears(MAX_YEARS_FROM_TODAY)) || date.isAfter(today.plusYears(MAX_YEARS_FROM_TODAY))) {
+            throw new ApiException(400, "Date out of range: " + text);
+        }
+        return date;
+    }
+
+    private static ObjectiveCategory parseCategory(String text) throws ApiException {
+        try {
+            return ObjectiveCategory.valueOf(text.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Unknown category: " + text);
+        }
+    }
+
+    private static int parseInt(String text, int fallback) throws ApiException {
+        if (text == null) return fallback;
+        try {
+            return Math.max(0, Integer.parseInt(text));
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Bad number: " + text);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) return query;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            query.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+}
@@ -1,38 +1,80 @@
 package com.kontinuum.service;
 
+import com.kontinuum.metrics.MetricsRegistry;
+import com.kontinuum.metrics.Timer;
+import com.kontinuum.model.BulkCompletionResult;
+import com.kontinuum.model.CompletionChange;
 import com.kontinuum.model.DailyProgress;
 import com.kontinuum.model.Objective;
+import com.kontinuum.model.ProgressRange;
 
 import java.time.LocalDate;
 import java.util.*;
 
 public class CalendarProgressManager {
+    // Ranges covering more objective-days than this are scanned in parallel
+    private static final long PARALLEL_SCAN_THRESHOLD = 50_000;
+    private static final Timer INDEX_UPDATE_TIME = MetricsRegistry.getDefault().timer("calendar.index.update");
+    private static final Timer INDEX_REBUILD_TIME = MetricsRegistry.getDefault().timer("calendar.index.rebuild");
+
     private final ObjectiveManager objectiveManager;
-    private final List<ProgressUpdateListener> listeners = new ArrayList<>();
+    private final DailyProgressIndex progressIndex = new DailyProgressIndex();
 
     public CalendarProgressManager(ObjectiveManager objectiveManager) {
         this.objectiveManager = objectiveManager;
+        rebuildIndex();
     }
 
-    public void addListener(ProgressUpdateListener listener) {
-        listeners.add(listener);
+    /**
+     * Must be called exactly once per actual completion change (see
+     * {@link ObjectiveManager#setObjectiveCompleted}); the index is adjusted by one
+     * in the direction of the objective's new state. Views learn about the change from the
+     * {@link com.kontinuum.event.DomainEvent.ObjectiveToggled} event, not from here.
+     */
+    public void objectiveStateChanged(Objective objective, LocalDate date) {
+        objectiveStateChanged(objective, date, objective.isCompleted(date));
     }
 
-    private void notifyProgressUpdated(LocalDate date) {
-        for (ProgressUpdateListener listener : listeners) {
-            listener.onProgressUpdated(date);
+    // Same, with the state the change set; use this when other threads may toggle the same day meanwhile
+    public void objectiveStateChanged(Objective objective, LocalDate date, boolean completed) {
+        long begin = INDEX_UPDATE_TIME.start();
+        if (!isArchived(date.toEpochDay())) {
+            progressIndex.adjust(date.toEpochDay(), completed ? 1 : -1);
         }
+        INDEX_UPDATE_TIME.stop(begin);
     }
 
-    public void objectiveStateChanged(Objective objective, LocalDate date) {
-        notifyProgressUpdated(date);
+    // Bulk counterpart of objectiveStateChanged: adjusts the index for every change that was applied
+    public void completionsChanged(BulkCompletionResult result) {
+        long begin = INDEX_UPDATE_TIME.start();
+        for (CompletionChange change : result.getApplied()) {
+            if (!isArchived(change.date().toEpochDay())) {
+                progressIndex.adjust(change.date().toEpochDay(), change.completed() ? 1 : -1);
+            }
+        }
+        INDEX_UPDATE_TIME.stop(begin);
+    }
+
+    // The index only covers the in-memory days; archived days are counted from the archive
+    private static boolean isArchived(long epochDay) {
+        CompletionArchive archive = Objective.getHistoryArchive();
+        return archive != null && archive.isArchived(epochDay);
+    }
+
+    // Recomputes the per-day counts from scratch; call after objectives are (re)loaded or reset
+    public void rebuildIndex() {
+        long begin = INDEX_REBUILD_TIME.start();
+        progressIndex.rebuild(objectiveManager.getObjectives());
+        INDEX_REBUILD_TIME.stop(begin);
     }
 
     public DailyProgress getProgressForDate(LocalDate date) {
-        List<Objective> allObjectives = objectiveManager.getObjectives();
-        int total = allObjectives.size();
-        int completed = (int) allObjectives.stream().filter(obj -> obj.isCompleted(date)).count();
-        return new DailyProgress(date, completed, total);
+        List<Objective> objectives = objectiveManager.getObjectives();
+        long epochDay = date.toEpochDay();
+        int completed = isArchived(epochDay)
+                ? Objective.getHistoryArchive().countCompleted(objectives, epochDay)
+                : progressIndex.getCompleted(epochDay);
+        return new DailyProgress(date, completed, objectives.size());
     }
 
     public Map<LocalDate, DailyProgress> getWeekProgress(LocalDate startOfWeek) {
@@ -43,4 +85,59 @@ public class CalendarProgressManager {
         }
         return map;
     }
+
+    /**
+     * Completed/total counts for every day in [start, end], computed in a single pass over
+     * each objective's completion bitmap. Large ranges are split across objectives and
+     * scanned in parallel; use this for month/year views and exports instead of calling
+     * {@link #getProgressForDate} per day.
+     */
+    public ProgressRange getProgressRange(LocalDate start, LocalDate end) {
+        return computeRange(objectiveManager.getObjectives(), start, end);
+    }
+
+    // Same as getProgressRange, for callers that have the objectives but no manager instance
+    public static ProgressRange computeRange(List<Objective> allObjectives, LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("Range end " + end + " is before start " + start);
+        }
+        long startDay = start.toEpochDay();
+        int days = Math.toIntExact(end.toEpochDay() - startDay + 1);
+
+        int[] counts;
+        if ((long) days * allObjectives.size() < PARALLEL_SCAN_THRESHOLD) {
+            counts = new int[days];
+            for (Objective objective : allObjectives) {
+                objective.accumulate(counts, startDay);
+            }
+        } else {
+            counts = allObjectives.parallelStream().collect(
+                    () -> new int[days],
+                    (partial, objective) -> objective.accumulate(partial, startDay),
+                    (left, right) -> {
+                        for (int i = 0; i < days; i++) {
+                            left[i] += right[i];
+                        }
+                    });
+        }
+        return new ProgressRange(start, counts, allObjectives.size());
+    }
+
+    /**
+     * Compares the index against a full recount from the objectives' bitmaps.
+     *
+     * @return the dates in [start, end] whose indexed count is wrong (empty if consistent)
+     */
+    public List<LocalDate> checkIndexConsistency(LocalDate start, LocalDate end) {
+        List<LocalDate> mismatches = new ArrayList<>();
+        ProgressRange recount = getProgressRange(start, end);
+        for (int i = 0; i < recount.size(); i++) {
+            LocalDate date = start.plusDays(i);
+            if (isArchived(date.toEpochDay())) continue;
+            if (recount.getCompleted(i) != progressIndex.getCompleted(date.toEpochDay())) {
+                mismatches.add(date);
+            }
+        }
+        return mismatches;
+    }
 }
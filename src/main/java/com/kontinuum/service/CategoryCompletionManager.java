@@ -8,8 +8,12 @@ import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 
+// Public methods are synchronized so counts stay exact when several threads complete objectives
 public class CategoryCompletionManager {
     private final EnumMap<ObjectiveCategory, Integer> completedCounts = new EnumMap<>(ObjectiveCategory.class);
+    // Set by invalidate(); the counts are recomputed from these on the next access
+    private List<Objective> pendingObjectives;
+    private LocalDate pendingDate;
 
     public CategoryCompletionManager() {
         // Initialize counts to 0 for all categories
@@ -19,35 +23,40 @@ public class CategoryCompletionManager {
     }
 
     // Increment completed count for a category
-    public void incrementCompletedCount(ObjectiveCategory category) {
+    public synchronized void incrementCompletedCount(ObjectiveCategory category) {
+        ensureCounted();
         completedCounts.put(category, completedCounts.getOrDefault(category, 0) + 1);
     }
 
     // Set completed count for a category (if you want to load/save it)
-    public void setCompletedCount(ObjectiveCategory category, int count) {
+    public synchronized void setCompletedCount(ObjectiveCategory category, int count) {
+        ensureCounted();
         completedCounts.put(category, count);
     }
 
     // Get completed count for a category
-    public int getCompletedCount(ObjectiveCategory category) {
+    public synchronized int getCompletedCount(ObjectiveCategory category) {
+        ensureCounted();
         return completedCounts.getOrDefault(category, 0);
     }
 
     // Reset counts for all categories if needed
-    public void reset() {
+    public synchronized void reset() {
+        pendingObjectives = null;
         for (ObjectiveCategory category : ObjectiveCategory.values()) {
             completedCounts.put(category, 0);
         }
     }
 
-    public void decrementCompletedCount(ObjectiveCategory category) {
+    public synchronized void decrementCompletedCount(ObjectiveCategory category) {
+        ensureCounted();
         int current = completedCounts.getOrDefault(category, 0);
         if (current > 0) {
             completedCounts.put(category, current - 1);
         }
     }
 
-    public void recalculateFromObjectives(List<Objective> objectives, LocalDate date) {
+    public synchronized void recalculateFromObjectives(List<Objective> objectives, LocalDate date) {
         reset();
         for (Objective obj : objectives) {
             if (obj.isCompleted(date)) {
@@ -56,6 +65,16 @@ public class CategoryCompletionManager {
         }
     }
 
+    // Like recalculateFromObjectives, but deferred until a count is actually needed
+    public synchronized void invalidate(List<Objective> objectives, LocalDate date) {
+        pendingObjectives = objectives;
+        pendingDate = date;
+    }
 
-
+    private void ensureCounted() {
+        if (pendingObjectives == null) return;
+        List<Objective> objectives = pendingObjectives;
+        pendingObjectives = null;
+        recalculateFromObjectives(objectives, pendingDate);
+    }
 }
@@ -1,29 +1,41 @@
 package com.kontinuum.service;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.kontinuum.event.DomainEvent;
+import com.kontinuum.event.EventBus;
+import com.kontinuum.jfr.XpChangeEvent;
+import com.kontinuum.metrics.StoreMetrics;
 import com.kontinuum.model.ObjectiveCategory;
+import com.kontinuum.model.TableXpCurve;
+import com.kontinuum.model.XpCurve;
 import com.kontinuum.model.XpTracker;
 import com.kontinuum.ui.LevelUpPopup;
 
 import java.io.*;
-import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 public class CategoryXpManager {
     private static final int MAX_XP_PER_CATEGORY = 600_000;
-    private static final String XP_DATA_FILE = "xp_data.json";
+    private static final StoreMetrics METRICS = new StoreMetrics("xp");
 
+    // Level 1 = 0 XP, Level 2 = 100 XP, Level 3 = 283 XP, ... capped at the per-category max
+    private static final XpCurve CATEGORY_CURVE = TableXpCurve.power(100, 1.5, MAX_XP_PER_CATEGORY);
+    // Overall level across all categories, 1..100, rounded to the nearest level as it always was
+    private static final XpCurve TOTAL_CURVE =
+            TableXpCurve.roundedGamma(MAX_XP_PER_CATEGORY * ObjectiveCategory.values().length, 100, 2.0);
+
+    // Filled once in the constructor and never structurally changed; each tracker is atomic,
+    // so XP can be added from any thread without locking
     private final EnumMap<ObjectiveCategory, XpTracker> categoryXp = new EnumMap<>(ObjectiveCategory.class);
-    private final EnumMap<ObjectiveCategory, Integer> categoryLevels = new EnumMap<>(ObjectiveCategory.class);
 
     // Dependency for completed objectives count
     private CategoryCompletionManager completionManager;
+    private PersistenceService persistenceService;
+    private EventBus eventBus;
 
     public CategoryXpManager() {
         for (ObjectiveCategory category : ObjectiveCategory.values()) {
-            categoryXp.put(category, new XpTracker(MAX_XP_PER_CATEGORY));
-            categoryLevels.put(category, 1); // Default to level 1
+            categoryXp.put(category, new XpTracker(MAX_XP_PER_CATEGORY, CATEGORY_CURVE));
         }
         loadXpData();
     }
@@ -33,32 +45,94 @@ public class CategoryXpManager {
         this.completionManager = completionManager;
     }
 
+    // Once set, XP writes are coalesced on the persistence thread instead of happening inline
+    public void setPersistenceService(PersistenceService persistenceService) {
+        this.persistenceService = persistenceService;
+        persistenceService.register(DataFileStore.XP, this::encodeXpData);
+    }
+
+    public void setEventBus(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
     public LevelUpInfo addXp(ObjectiveCategory category, int xp) {
+        if (!categoryXp.containsKey(category)) return null;
+        LevelUpInfo levelUp = changeXp(category, xp);
+        saveXpData();
+        return levelUp;
+    }
+
+    /**
+     * Applies a net XP change per category (e.g. from a bulk completion) with a single save.
+     * Negative deltas remove XP.
+     *
+     * @return a level-up for every category that reached a new level
+     */
+    public List<LevelUpInfo> applyXpDeltas(Map<ObjectiveCategory, Integer> deltas) {
+        List<LevelUpInfo> levelUps = new ArrayList<>();
+        for (Map.Entry<ObjectiveCategory, Integer> delta : deltas.entrySet()) {
+            if (!categoryXp.containsKey(delta.getKey()) || delta.getValue() == 0) continue;
+            LevelUpInfo levelUp = changeXp(delta.getKey(), delta.getValue());
+            if (levelUp != null) {
+                levelUps.add(levelUp);
+            }
+        }
+        saveXpData();
+        return levelUps;
+    }
+
+    // Adds (or removes) XP without saving; returns the level-up it caused, if any
+    private LevelUpInfo changeXp(ObjectiveCategory category, int xp) {
         XpTracker tracker = categoryXp.get(category);
-        if (tracker == null) return null;
 
-        int oldXp = tracker.getXp();
+        // Levels are judged from this call's own before/after values, so two threads adding
+        // at once can't both (or neither) report the same level-up
+        int oldXp = tracker.getAndAddXp(xp);
+        int newXp = Math.max(0, Math.min(MAX_XP_PER_CATEGORY, oldXp + xp));
         int oldLevel = calculateLevelForXp(oldXp);
-
-        tracker.addXp(xp);
-        int newXp = tracker.getXp();
         int newLevel = calculateLevelForXp(newXp);
-        categoryLevels.put(category, newLevel);
-        saveXpData();
+        publish(new DomainEvent.XpChanged(category, newXp));
+        recordXpChange(category, xp, newXp, newLevel > oldLevel);
 
         if (newLevel > oldLevel) {
+            publish(new DomainEvent.LevelUp(category, newLevel, newXp));
             return new LevelUpInfo(category, newLevel, newXp, xp);
         }
         return null;
     }
 
 
+    // Replaces a category's XP outright (e.g. on import); no level-up is reported
+    public void setXp(ObjectiveCategory category, int xp) {
+        XpTracker tracker = categoryXp.get(category);
+        if (tracker == null) return;
+        int oldXp = tracker.getXp();
+        tracker.setXp(xp);
+        saveXpData();
+        publish(new DomainEvent.XpChanged(category, tracker.getXp()));
+        recordXpChange(category, tracker.getXp() - oldXp, tracker.getXp(), false);
+    }
+
     public void removeXp(ObjectiveCategory category, int xp) {
         XpTracker tracker = categoryXp.get(category);
         if (tracker != null) {
-            tracker.subtractXp(xp);
-            categoryLevels.put(category, calculateLevelForXp(tracker.getXp()));
+            int oldXp = tracker.getAndAddXp(-xp);
             saveXpData();
+            publish(new DomainEvent.XpChanged(category, Math.max(0, oldXp - xp)));
+            recordXpChange(category, -xp, Math.max(0, oldXp - xp), false);
+        }
+    }
+
+    // An instant flight recorder event; costs one check when nothing is recording
+    private void recordXpChange(ObjectiveCategory category, int delta, int newXp, boolean levelUp) {
+        XpChangeEvent event = new XpChangeEvent();
+        if (event.shouldCommit()) {
+            event.category = category.name();
+            event.delta = delta;
+            event.xp = newXp;
+            event.levelUp = levelUp;
+            event.level = calculateLevelForXp(newXp);
+            event.commit();
         }
     }
 
@@ -73,6 +147,7 @@ public class CategoryXpManager {
     public int getXpToNextLevel(ObjectiveCategory category) {
         int currentXp = getTracker(category).getXp();
         int currentLevel = calculateLevelForXp(currentXp);
+        if (currentLevel >= CATEGORY_CURVE.getMaxLevel()) return 0;
         int xpForNext = xpRequiredForLevel(currentLevel + 1);
         return Math.max(0, xpForNext - currentXp);
     }
@@ -80,6 +155,7 @@ public class CategoryXpManager {
     public double getCategoryProgressPercentage(ObjectiveCategory category) {
         int currentXp = getTracker(category).getXp();
         int currentLevel = calculateLevelForXp(currentXp);
+        if (currentLevel >= CATEGORY_CURVE.getMaxLevel()) return 1.0;
         int xpForCurrent = xpRequiredForLevel(currentLevel);
         int xpForNext = xpRequiredForLevel(currentLevel + 1);
 
@@ -87,62 +163,75 @@ public class CategoryXpManager {
     }
 
     public int getTotalLevelCapped() {
-        int totalXp = categoryXp.values().stream().mapToInt(XpTracker::getXp).sum();
-        int maxTotalXp = MAX_XP_PER_CATEGORY * categoryXp.size();
-        double gamma = 2.0;
-
-        double ratio = (double) totalXp / maxTotalXp;
-        double rawLevel = 100 * Math.pow(ratio, 1.0 / gamma);
-        return (int) Math.round(Math.max(1, Math.min(100, rawLevel)));
+        return TOTAL_CURVE.levelForXp(getTotalXp());
     }
 
     public int getTotalXp() {
         return categoryXp.values().stream().mapToInt(XpTracker::getXp).sum();
     }
 
-    // XP Curve: Level 1 = 0 XP, Level 2 = 100 XP, Level 3 = 250 XP, etc.
     private int calculateLevelForXp(int xp) {
-        int level = 1;
-        while (xp >= xpRequiredForLevel(level + 1)) {
-            level++;
-        }
-        return level;
+        return CATEGORY_CURVE.levelForXp(xp);
     }
 
     private int xpRequiredForLevel(int level) {
-        return (int) Math.round(100 * Math.pow(level - 1, 1.5));
+        return CATEGORY_CURVE.xpForLevel(level);
+    }
+
+    public XpCurve getCategoryCurve() {
+        return CATEGORY_CURVE;
+    }
+
+    private void publish(DomainEvent event) {
+        if (eventBus != null) {
+            eventBus.publish(event);
+        }
     }
 
     private void saveXpData() {
+        if (persistenceService != null) {
+            persistenceService.markDirty(DataFileStore.XP);
+        } else {
+            long begin = METRICS.save.start();
+            try {
+                DataFileStore.getDefault().commit(DataFileStore.XP, encodeXpData());
+            } catch (IOException e) {
+                METRICS.errors.increment();
+                e.printStackTrace();
+            } finally {
+                METRICS.save.stop(begin);
+            }
+        }
+    }
+
+    private byte[] encodeXpData() {
+        long begin = METRICS.encode.start();
         Map<ObjectiveCategory, Integer> xpMap = new EnumMap<>(ObjectiveCategory.class);
         for (Map.Entry<ObjectiveCategory, XpTracker> entry : categoryXp.entrySet()) {
             xpMap.put(entry.getKey(), entry.getValue().getXp());
         }
-        try (Writer writer = new FileWriter(XP_DATA_FILE)) {
-            new Gson().toJson(xpMap, writer);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        return METRICS.encoded(begin, JsonCodecs.xpMap().toJson(xpMap).getBytes(StandardCharsets.UTF_8));
     }
 
     private void loadXpData() {
-        File file = new File(XP_DATA_FILE);
-        if (!file.exists()) return;
+        long begin = METRICS.load.start();
+        try (InputStream in = DataFileStore.getDefault().openSection(DataFileStore.XP)) {
+            if (in == null) return;
 
-        try (Reader reader = new FileReader(file)) {
-            Type type = new TypeToken<Map<ObjectiveCategory, Integer>>() {}.getType();
-            Map<ObjectiveCategory, Integer> xpMap = new Gson().fromJson(reader, type);
+            Map<ObjectiveCategory, Integer> xpMap = JsonCodecs.xpMap().fromJson(new InputStreamReader(in, StandardCharsets.UTF_8));
             if (xpMap != null) {
                 for (Map.Entry<ObjectiveCategory, Integer> entry : xpMap.entrySet()) {
                     XpTracker tracker = categoryXp.get(entry.getKey());
                     if (tracker != null) {
                         tracker.setXp(entry.getValue());
-                        categoryLevels.put(entry.getKey(), calculateLevelForXp(entry.getValue()));
                     }
                 }
             }
         } catch (IOException e) {
+            METRICS.errors.increment();
             e.printStackTrace();
+        } finally {
+            METRICS.load.stop(begin);
         }
     }
 
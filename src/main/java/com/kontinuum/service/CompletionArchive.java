@@ -0,0 +1,431 @@
+package com.kontinuum.service;
+
+import com.kontinuum.jfr.StoreIoEvent;
+import com.kontinuum.model.CompletionBitmap;
+import com.kontinuum.model.CompletionChange;
+import com.kontinuum.model.Objective;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Cold tier of the objective completion history. Days before the boundary (the first day of
+ * the oldest hot month) live in one deflate-compressed file per year (history/2024.arc)
+ * holding a 366-bit row per objective id; everything from the boundary on stays in each
+ * objective's {@link CompletionBitmap} and in the objectives snapshot. Years are decoded on
+ * first access and kept in a small LRU cache, so only the years actually viewed are in memory.
+ * Edits to archived days only change the cached year and mark it dirty; the file is rewritten
+ * by {@link #flush()} on the persistence thread, and dirty years stay cached until then.
+ */
+public class CompletionArchive implements Flushable {
+    // Current month plus this many before it stay in memory
+    public static final int HOT_MONTHS = 3;
+    private static final int MAX_CACHED_YEARS = 3;
+
+    private static final String DEFAULT_DIR = "history";
+    private static final String SUFFIX = ".arc";
+    private static final String BOUNDARY_FILE = "boundary";
+    private static final String STORE_NAME = "history";
+    private static final int MAGIC = 0x4B415243; // "KARC"
+    private static final int VERSION = 1;
+    private static final int WORDS_PER_YEAR = 6; // 384 bits >= 366 days
+
+    private final Path dir;
+    // Days before this are archived; Long.MIN_VALUE until the first compaction
+    private volatile long boundaryDay = Long.MIN_VALUE;
+    private PersistenceService persistenceService;
+
+    // Years edited since their last write
+    private final Set<Integer> dirtyYears = new HashSet<>();
+    private final Map<Integer, Year> cache = new LinkedHashMap<>(MAX_CACHED_YEARS + 1, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Year> eldest) {
+            // Evicting a dirty year would lose its edits
+            return size() > MAX_CACHED_YEARS && !dirtyYears.contains(eldest.getKey());
+        }
+    };
+
+    // One decoded archive file: a row of day bits per objective id
+    private static class Year {
+        final long firstDay;
+        final Map<String, long[]> rows = new HashMap<>();
+
+        Year(int year) {
+            this.firstDay = LocalDate.of(year, 1, 1).toEpochDay();
+        }
+
+        boolean get(String id, long epochDay) {
+            long[] row = rows.get(id);
+            if (row == null) return false;
+            int bit = (int) (epochDay - firstDay);
+            return (row[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        void set(String id, long epochDay, boolean completed) {
+            int bit = (int) (epochDay - firstDay);
+            long[] row = rows.get(id);
+            if (row == null) {
+                if (!completed) return;
+                row = new long[WORDS_PER_YEAR];
+                rows.put(id, row);
+            }
+            if (completed) {
+                row[bit >>> 6] |= 1L << bit;
+            } else {
+                row[bit >>> 6] &= ~(1L << bit);
+            }
+        }
+    }
+
+    public CompletionArchive(Path dir) {
+        this.dir = dir;
+        this.boundaryDay = readBoundary();
+    }
+
+    public static CompletionArchive openDefault() {
+        return new CompletionArchive(DataPaths.resolve(DEFAULT_DIR));
+    }
+
+    // Without one (benchmarks), edits are written straight away on the caller's thread
+    public void setPersistenceService(PersistenceService persistenceService) {
+        this.persistenceService = persistenceService;
+        persistenceService.register(STORE_NAME, this);
+    }
+
+    // First day of the oldest month that stays hot on the given date
+    public static long hotStart(LocalDate today) {
+        return YearMonth.from(today).minusMonths(HOT_MONTHS - 1).atDay(1).toEpochDay();
+    }
+
+    public long getBoundaryDay() {
+        return boundaryDay;
+    }
+
+    public boolean isArchived(long epochDay) {
+        return epochDay < boundaryDay;
+    }
+
+    public synchronized boolean get(String objectiveId, long epochDay) {
+        if (objectiveId == null) return false;
+        try {
+            return year(epochDay).get(objectiveId, epochDay);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    // Changes an archived day in place; the year file is rewritten on the next flush
+    public void set(String objectiveId, long epochDay, boolean completed) {
+        if (objectiveId == null) return;
+        boolean changed;
+        synchronized (this) {
+            try {
+                Year year = year(epochDay);
+                changed = year.get(objectiveId, epochDay) != completed;
+                if (changed) {
+                    year.set(objectiveId, epochDay, completed);
+                    dirtyYears.add(yearOf(epochDay));
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+                return;
+            }
+        }
+        if (changed) yearsChanged();
+    }
+
+    // Like set for many days at once
+    public void setAll(List<CompletionChange> changes) {
+        boolean changed = false;
+        synchronized (this) {
+            try {
+                for (CompletionChange change : changes) {
+                    String id = change.objective().getId();
+                    if (id == null) continue;
+                    long epochDay = change.date().toEpochDay();
+                    // Marked dirty right away, so a later year loaded in this batch can't evict it
+                    year(epochDay).set(id, epochDay, change.completed());
+                    dirtyYears.add(yearOf(epochDay));
+                    changed = true;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        if (changed) yearsChanged();
+    }
+
+    // Called outside the lock: on shutdown markDirty flushes inline, and flush() takes the lock
+    private void yearsChanged() {
+        PersistenceService persistence = persistenceService;
+        if (persistence != null) {
+            persistence.markDirty(STORE_NAME);
+        } else {
+            try {
+                flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Rewrites every dirty year file. A year whose write fails stays dirty (and cached), so
+     * memory and disk agree again after the next successful flush.
+     */
+    @Override
+    public synchronized void flush() throws IOException {
+        IOException failure = null;
+        for (Integer y : new ArrayList<>(dirtyYears)) {
+            try {
+                writeYear(y, cache.get(y));
+                dirtyYears.remove(y);
+            } catch (IOException e) {
+                if (failure == null) failure = e;
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    // Receives archived completed days; may throw so visitors can write straight to a file
+    public interface CompletedDayVisitor {
+        void visit(String objectiveId, long epochDay) throws IOException;
+    }
+
+    /**
+     * Calls the visitor with every archived completed day, year by year in ascending order.
+     * Years are decoded one at a time and not added to the cache, so walking a long history
+     * holds one year in memory.
+     */
+    public synchronized void forEachCompleted(CompletedDayVisitor visitor) throws IOException {
+        if (boundaryDay == Long.MIN_VALUE || !Files.isDirectory(dir)) return;
+        List<Integer> years = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    years.add(Integer.parseInt(name.substring(0, name.length() - SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not a year file
+                }
+            }
+        }
+        Collections.sort(years);
+        for (int y : years) {
+            Year year = load(y);
+            long end = Math.min(boundaryDay, LocalDate.of(y + 1, 1, 1).toEpochDay());
+            for (Map.Entry<String, long[]> row : year.rows.entrySet()) {
+                long[] words = row.getValue();
+                for (int w = 0; w < words.length; w++) {
+                    for (long word = words[w]; word != 0; word &= word - 1) {
+                        long day = year.firstDay + ((long) w << 6) + Long.numberOfTrailingZeros(word);
+                        if (day >= end) break;
+                        visitor.visit(row.getKey(), day);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds one to counts[day - fromEpochDay] for every archived completed day of the objective
+     * in [fromEpochDay, fromEpochDay + counts.length), like {@link CompletionBitmap#accumulate}.
+     */
+    public synchronized void accumulate(String objectiveId, int[] counts, long fromEpochDay) {
+        if (objectiveId == null) return;
+        long end = Math.min(fromEpochDay + counts.length, boundaryDay);
+        try {
+            for (long day = fromEpochDay; day < end; ) {
+                Year year = year(day);
+                long yearEnd = Math.min(end, LocalDate.ofEpochDay(year.firstDay).plusYears(1).toEpochDay());
+                long[] row = year.rows.get(objectiveId);
+                if (row != null) {
+                    for (; day < yearEnd; day++) {
+                        int bit = (int) (day - year.firstDay);
+                        if ((row[bit >>> 6] & (1L << bit)) != 0) {
+                            counts[(int) (day - fromEpochDay)]++;
+                        }
+                    }
+                }
+                day = yearEnd;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Number of the given objectives completed on an archived day
+    public synchronized int countCompleted(List<Objective> objectives, long epochDay) {
+        try {
+            Year year = year(epochDay);
+            int count = 0;
+            for (Objective objective : objectives) {
+                if (objective.getId() != null && year.get(objective.getId(), epochDay)) {
+                    count++;
+                }
+            }
+            return count;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    /**
+     * Moves every completed day before {@code newBoundary} out of the objectives' bitmaps into
+     * the yearly archives. Archive rows for the newly covered days are replaced by the bitmap
+     * contents, so re-running after a crash between the two writes is harmless. The boundary
+     * is written after the archives; callers save the trimmed snapshot afterwards.
+     *
+     * @return true if any bitmap lost days and the snapshot should be rewritten
+     */
+    public synchronized boolean compact(List<Objective> objectives, long newBoundary) throws IOException {
+        if (newBoundary > boundaryDay) {
+            long from = boundaryDay;
+            if (from == Long.MIN_VALUE) {
+                from = newBoundary;
+                for (Objective objective : objectives) {
+                    long first = objective.getCompletions().nextSetDay(CompletionBitmap.NONE);
+                    if (first != CompletionBitmap.NONE) {
+                        from = Math.min(from, first);
+                    }
+                }
+            }
+            for (int y = yearOf(from); from < newBoundary && y <= yearOf(newBoundary - 1); y++) {
+                Year year = load(y);
+                long start = Math.max(from, year.firstDay);
+                long end = Math.min(newBoundary, LocalDate.of(y + 1, 1, 1).toEpochDay());
+                for (Objective objective : objectives) {
+                    if (objective.getId() == null) continue;
+                    CompletionBitmap completions = objective.getCompletions();
+                    for (long day = start; day < end; day++) {
+                        year.set(objective.getId(), day, completions.get(day));
+                    }
+                }
+                writeYear(y, year);
+                cache.put(y, year);
+                dirtyYears.remove(y);
+            }
+            writeBoundary(newBoundary);
+            boundaryDay = newBoundary;
+        }
+
+        boolean trimmed = false;
+        for (Objective objective : objectives) {
+            trimmed |= objective.getCompletions().clearBefore(boundaryDay);
+        }
+        return trimmed;
+    }
+
+    private Year year(long epochDay) throws IOException {
+        int y = yearOf(epochDay);
+        Year year = cache.get(y);
+        if (year == null) {
+            year = load(y);
+            cache.put(y, year);
+        }
+        return year;
+    }
+
+    private static int yearOf(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).getYear();
+    }
+
+    private Path yearPath(int year) {
+        return dir.resolve(year + SUFFIX);
+    }
+
+    private Year load(int y) throws IOException {
+        Year cached = cache.get(y);
+        if (cached != null) return cached;
+
+        Year year = new Year(y);
+        Path path = yearPath(y);
+        if (!Files.exists(path)) return year;
+
+        StoreIoEvent event = new StoreIoEvent();
+        event.begin();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new InflaterInputStream(Files.newInputStream(path))))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a history archive: " + path);
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unsupported history archive version " + version);
+            in.readInt(); // year
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String id = in.readUTF();
+                long[] row = new long[WORDS_PER_YEAR];
+                for (int w = 0; w < WORDS_PER_YEAR; w++) {
+                    row[w] = in.readLong();
+                }
+                year.rows.put(id, row);
+            }
+        }
+        event.commit(StoreIoEvent.LOAD, path, String.valueOf(y), Files.size(path));
+        return year;
+    }
+
+    private void writeYear(int y, Year year) throws IOException {
+        StoreIoEvent event = new StoreIoEvent();
+        event.begin();
+        Files.createDirectories(dir);
+        Path path = yearPath(y);
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                new DeflaterOutputStream(Files.newOutputStream(temp))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(y);
+            int count = 0;
+            for (long[] row : year.rows.values()) {
+                if (!isEmpty(row)) count++;
+            }
+            out.writeInt(count);
+            for (Map.Entry<String, long[]> entry : year.rows.entrySet()) {
+                if (isEmpty(entry.getValue())) continue;
+                out.writeUTF(entry.getKey());
+                for (long word : entry.getValue()) {
+                    out.writeLong(word);
+                }
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        event.commit(StoreIoEvent.SAVE, path, String.valueOf(y), Files.size(path));
+    }
+
+    private static boolean isEmpty(long[] row) {
+        for (long word : row) {
+            if (word != 0) return false;
+        }
+        return true;
+    }
+
+    private long readBoundary() {
+        Path path = dir.resolve(BOUNDARY_FILE);
+        if (!Files.exists(path)) return Long.MIN_VALUE;
+        try {
+            return LocalDate.parse(Files.readString(path, StandardCharsets.UTF_8).trim()).toEpochDay();
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+            return Long.MIN_VALUE;
+        }
+    }
+
+    private void writeBoundary(long epochDay) throws IOException {
+        Files.createDirectories(dir);
+        Path path = dir.resolve(BOUNDARY_FILE);
+        Path temp = path.resolveSibling(BOUNDARY_FILE + ".tmp");
+        Files.writeString(temp, LocalDate.ofEpochDay(epochDay).toString(), StandardCharsets.UTF_8);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,51 @@
+package com.kontinuum.service;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.kontinuum.model.CompletionBitmap;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Keeps the on-disk "completedByDate" format ({"2025-07-21": true, ...}) while decoding
+ * straight into a {@link CompletionBitmap}. Only completed days are written.
+ */
+public class CompletionBitmapAdapter extends TypeAdapter<CompletionBitmap> {
+    @Override
+    public void write(JsonWriter out, CompletionBitmap value) throws IOException {
+        out.beginObject();
+        if (value != null) {
+            for (long day = value.nextSetDay(CompletionBitmap.NONE); day != CompletionBitmap.NONE; day = value.nextSetDay(day + 1)) {
+                out.name(LocalDate.ofEpochDay(day).toString()).value(true);
+            }
+        }
+        out.endObject();
+    }
+
+    @Override
+    public CompletionBitmap read(JsonReader in) throws IOException {
+        CompletionBitmap bitmap = new CompletionBitmap();
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return bitmap;
+        }
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String key = in.nextName();
+            boolean completed = in.nextBoolean();
+            if (!completed) continue;
+            try {
+                bitmap.set(JsonCodecs.parseEpochDay(key), true);
+            } catch (DateTimeParseException e) {
+                // ignore parse errors
+            }
+        }
+        in.endObject();
+        return bitmap;
+    }
+}
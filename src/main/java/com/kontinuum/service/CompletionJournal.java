@@ -0,0 +1,137 @@
+package com.kontinuum.service;
+
+import com.kontinuum.model.Objective;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of objective completion toggles.
+ * Each line is "objectiveId TAB epochDay TAB 0|1". Replaying the lines in order on top of
+ * the last objectives snapshot gives the current state; compaction writes a new
+ * snapshot and truncates the log. All methods are synchronized so compaction on the
+ * persistence thread can't interleave with appends from the FX thread.
+ */
+public class CompletionJournal {
+    private final Path path;
+    private BufferedWriter writer;
+    private int entryCount;
+
+    public CompletionJournal(Path path) {
+        this.path = path;
+    }
+
+    public synchronized void append(String objectiveId, LocalDate date, boolean completed) {
+        try {
+            if (writer == null) {
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            writer.write(objectiveId);
+            writer.write('\t');
+            writer.write(Long.toString(date.toEpochDay()));
+            writer.write('\t');
+            writer.write(completed ? '1' : '0');
+            writer.write('\n');
+            writer.flush();
+            entryCount++;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Applies every journaled toggle to the matching objective.
+     * Lines for unknown objectives and a torn last line (crash mid-write) are skipped.
+     *
+     * @return the number of entries applied
+     */
+    public synchronized int replay(Map<String, Objective> objectivesById) {
+        entryCount = 0;
+        if (!Files.exists(path)) return 0;
+
+        int applied = 0;
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                entryCount++;
+                int first = line.indexOf('\t');
+                int second = line.indexOf('\t', first + 1);
+                if (first < 0 || second < 0 || second + 1 >= line.length()) continue;
+
+                Objective objective = objectivesById.get(line.substring(0, first));
+                if (objective == null) continue;
+
+                try {
+                    long epochDay = Long.parseLong(line.substring(first + 1, second));
+                    boolean completed = line.charAt(second + 1) == '1';
+                    objective.restoreCompletion(LocalDate.ofEpochDay(epochDay), completed);
+                    applied++;
+                } catch (NumberFormatException e) {
+                    // ignore malformed entries
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return applied;
+    }
+
+    public synchronized int size() {
+        return entryCount;
+    }
+
+    // Called after a fresh snapshot has been written; everything in the log is now folded into it
+    public synchronized void truncate() {
+        close();
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        entryCount = 0;
+    }
+
+    /**
+     * Drops the first {@code mark} entries (those folded into a snapshot that was encoded
+     * when the journal held that many) and keeps anything appended since.
+     */
+    public synchronized void truncateThrough(int mark) {
+        if (mark >= entryCount) {
+            truncate();
+            return;
+        }
+        if (mark <= 0) return;
+
+        close();
+        try {
+            List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+            List<String> remaining = lines.subList(Math.min(mark, lines.size()), lines.size());
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.write(temp, remaining, StandardCharsets.UTF_8);
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            entryCount = remaining.size();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    public synchronized void close() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        writer = null;
+    }
+}
@@ -0,0 +1,65 @@
+package com.kontinuum.service;
+
+import com.kontinuum.model.CompletionBitmap;
+import com.kontinuum.model.Objective;
+
+import java.util.List;
+
+/**
+ * Number of completed objectives per epoch day, kept in a flat int array.
+ * Reads and single-day adjustments are O(1) regardless of how many objectives exist.
+ * All methods are synchronized; toggles may arrive from several threads at once.
+ */
+public class DailyProgressIndex {
+    private static final int[] EMPTY = new int[0];
+
+    private long baseDay;
+    private int[] completedCounts = EMPTY;
+
+    public synchronized int getCompleted(long epochDay) {
+        long offset = epochDay - baseDay;
+        if (offset < 0 || offset >= completedCounts.length) return 0;
+        return Math.max(0, completedCounts[(int) offset]);
+    }
+
+    // Not clamped here: concurrent toggles can deliver an uncomplete's -1 before the matching +1,
+    // and the sum must still come out right once both have arrived
+    public synchronized void adjust(long epochDay, int delta) {
+        ensureCovers(epochDay);
+        int offset = (int) (epochDay - baseDay);
+        completedCounts[offset] += delta;
+    }
+
+    public synchronized void rebuild(List<Objective> objectives) {
+        completedCounts = EMPTY;
+        baseDay = 0;
+        for (Objective objective : objectives) {
+            CompletionBitmap completions = objective.getCompletions();
+            for (long day = completions.nextSetDay(CompletionBitmap.NONE); day != CompletionBitmap.NONE; day = completions.nextSetDay(day + 1)) {
+                adjust(day, 1);
+            }
+        }
+    }
+
+    // Grows in whole years so a burst of toggles around "today" doesn't reallocate each time
+    private void ensureCovers(long epochDay) {
+        if (completedCounts.length == 0) {
+            baseDay = epochDay - 366;
+            completedCounts = new int[366 * 2];
+            return;
+        }
+
+        long endDay = baseDay + completedCounts.length;
+        if (epochDay >= baseDay && epochDay < endDay) return;
+
+        long newBase = epochDay < baseDay ? epochDay - 366 : baseDay;
+        long newEnd = epochDay >= endDay ? epochDay + 366 : endDay;
+        if (newEnd - newBase > CompletionBitmap.MAX_SPAN_DAYS) {
+            throw new IllegalArgumentException("Day " + epochDay + " is too far from the indexed range");
+        }
+        int[] grown = new int[(int) (newEnd - newBase)];
+        System.arraycopy(completedCounts, 0, grown, (int) (baseDay - newBase), completedCounts.length);
+        completedCounts = grown;
+        baseDay = newBase;
+    }
+}
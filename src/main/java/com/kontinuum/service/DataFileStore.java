@@ -0,0 +1,262 @@
+package com.kontinuum.service;
+
+import com.kontinuum.jfr.StoreIoEvent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * All app state in one sectioned file (kontinuum.dat).
+ *
+ * Layout: int magic "KDAT", short version, int section count, then a table of contents
+ * (UTF name, int offset, int length, int CRC32 per section) followed by the section bytes.
+ * Each manager owns one section and keeps its own encoding (JSON, binary, text) inside it.
+ *
+ * The file is read with a single channel read on open; sections are only decoded when
+ * their owner asks for them. {@link #commit} rewrites the file through a temp file and an
+ * atomic rename, so several sections updated in one call are either all on disk or none.
+ * The file isn't memory-mapped because a mapped file can't be replaced by rename on Windows.
+ */
+public final class DataFileStore {
+    public static final String OBJECTIVES = "objectives";
+    public static final String XP = "xp";
+    public static final String MISSIONS = "missions";
+    public static final String MISSION_META = "mission_meta";
+    public static final String PENALTIES = "penalties";
+    public static final String PENALTY_EVAL_DATE = "penalty_eval_date";
+
+    private static final String DATA_FILE = "kontinuum.dat";
+    private static final int MAGIC = 0x4B444154; // "KDAT"
+    private static final short VERSION = 1;
+
+    // Files used before the single data file; imported once when kontinuum.dat doesn't exist yet
+    private static final Map<String, String> LEGACY_FILES = new LinkedHashMap<>();
+
+    static {
+        LEGACY_FILES.put(OBJECTIVES, "objectives.json");
+        LEGACY_FILES.put(XP, "xp_data.json");
+        LEGACY_FILES.put(MISSIONS, "missions.json");
+        LEGACY_FILES.put(MISSION_META, "mission_meta.json");
+        LEGACY_FILES.put(PENALTIES, "activePenalties.dat");
+        LEGACY_FILES.put(PENALTY_EVAL_DATE, "lastEvaluatedDate.txt");
+    }
+
+    private static DataFileStore defaultStore;
+
+    private final Path path;
+    // Current file contents and its table of contents; replaced wholesale on commit
+    private byte[] contents = new byte[0];
+    private Map<String, Section> sections = new LinkedHashMap<>();
+
+    private static class Section {
+        final int offset;
+        final int length;
+        final int crc;
+
+        Section(int offset, int length, int crc) {
+            this.offset = offset;
+            this.length = length;
+            this.crc = crc;
+        }
+    }
+
+    public DataFileStore(Path path) {
+        this.path = path;
+        try {
+            if (Files.exists(path)) {
+                load();
+            } else {
+                importLegacyFiles();
+            }
+        } catch (IOException e) {
+            // Keep the unreadable file around for recovery instead of overwriting it on the next commit
+            System.err.println("Could not read " + path + ", starting empty: " + e);
+            contents = new byte[0];
+            sections = new LinkedHashMap<>();
+            try {
+                if (Files.exists(path)) {
+                    Files.move(path, path.resolveSibling(path.getFileName() + ".unreadable"), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException moveFailure) {
+                moveFailure.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * The store for the current data directory (see {@link DataPaths}).
+     */
+    public static synchronized DataFileStore getDefault() {
+        Path path = DataPaths.resolve(DATA_FILE);
+        if (defaultStore == null || !defaultStore.path.equals(path)) {
+            defaultStore = new DataFileStore(path);
+        }
+        return defaultStore;
+    }
+
+    public synchronized boolean hasSection(String name) {
+        return sections.containsKey(name);
+    }
+
+    /**
+     * Opens a section for reading, or returns null if it doesn't exist or fails its checksum.
+     */
+    public synchronized InputStream openSection(String name) {
+        Section section = sections.get(name);
+        if (section == null) return null;
+
+        CRC32 crc = new CRC32();
+        crc.update(contents, section.offset, section.length);
+        if ((int) crc.getValue() != section.crc) {
+            System.err.println("Section '" + name + "' in " + path + " is corrupt, ignoring it");
+            return null;
+        }
+        return new ByteArrayInputStream(contents, section.offset, section.length);
+    }
+
+    public String readString(String name) throws IOException {
+        try (InputStream in = openSection(name)) {
+            return in == null ? null : new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    public void commit(String name, byte[] data) throws IOException {
+        commit(Map.of(name, data));
+    }
+
+    /**
+     * Replaces the given sections (others are kept as they are) and durably rewrites the
+     * file. Either every section in the map is committed or, on failure, none is.
+     */
+    public synchronized void commit(Map<String, byte[]> updates) throws IOException {
+        Map<String, byte[]> merged = new LinkedHashMap<>();
+        for (Map.Entry<String, Section> entry : sections.entrySet()) {
+            if (!updates.containsKey(entry.getKey())) {
+                Section section = entry.getValue();
+                byte[] data = new byte[section.length];
+                System.arraycopy(contents, section.offset, data, 0, section.length);
+                merged.put(entry.getKey(), data);
+            }
+        }
+        merged.putAll(updates);
+
+        byte[] encoded = encode(merged);
+        StoreIoEvent event = new StoreIoEvent();
+        event.begin();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(encoded);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        event.commit(StoreIoEvent.SAVE, path, String.join(",", updates.keySet()), encoded.length);
+
+        contents = encoded;
+        sections = parseTableOfContents(encoded);
+    }
+
+    private void load() throws IOException {
+        StoreIoEvent event = new StoreIoEvent();
+        event.begin();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Data file too large: " + size);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until full
+            }
+            contents = buffer.array();
+        }
+        sections = parseTableOfContents(contents);
+        event.commit(StoreIoEvent.LOAD, path, String.join(",", sections.keySet()), contents.length);
+    }
+
+    private void importLegacyFiles() throws IOException {
+        Map<String, byte[]> imported = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : LEGACY_FILES.entrySet()) {
+            Path legacy = path.resolveSibling(entry.getValue());
+            if (Files.exists(legacy)) {
+                imported.put(entry.getKey(), Files.readAllBytes(legacy));
+            }
+        }
+        if (!imported.isEmpty()) {
+            commit(imported);
+            System.out.println("Imported " + imported.keySet() + " into " + path);
+        }
+    }
+
+    private static byte[] encode(Map<String, byte[]> sectionData) throws IOException {
+        // The header size depends on the names, so lay out the table of contents first
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        int headerSize = 4 + 2 + 4;
+        for (String name : sectionData.keySet()) {
+            headerSize += 2 + name.getBytes(StandardCharsets.UTF_8).length + 4 + 4 + 4;
+        }
+
+        DataOutputStream out = new DataOutputStream(header);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(sectionData.size());
+        int offset = headerSize;
+        for (Map.Entry<String, byte[]> entry : sectionData.entrySet()) {
+            CRC32 crc = new CRC32();
+            crc.update(entry.getValue());
+            out.writeUTF(entry.getKey());
+            out.writeInt(offset);
+            out.writeInt(entry.getValue().length);
+            out.writeInt((int) crc.getValue());
+            offset += entry.getValue().length;
+        }
+        for (byte[] data : sectionData.values()) {
+            out.write(data);
+        }
+        out.flush();
+        return header.toByteArray();
+    }
+
+    private static Map<String, Section> parseTableOfContents(byte[] data) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (data.length < 10 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a Kontinuum data file");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported data file version " + version);
+        }
+
+        int count = buffer.getInt();
+        Map<String, Section> toc = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            int nameLength = buffer.getShort() & 0xFFFF;
+            String name = new String(data, buffer.position(), nameLength, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + nameLength);
+            int offset = buffer.getInt();
+            int length = buffer.getInt();
+            int crc = buffer.getInt();
+            if (offset < 0 || length < 0 || offset + length > data.length) {
+                throw new IOException("Section '" + name + "' points outside the file");
+            }
+            toc.put(name, new Section(offset, length, crc));
+        }
+        return toc;
+    }
+}
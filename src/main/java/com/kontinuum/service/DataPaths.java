@@ -0,0 +1,26 @@
+package com.kontinuum.service;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Resolves the app's data files. Defaults to the working directory;
+ * override with -Dkontinuum.dataDir=... or {@link #setDataDir} (benchmarks use a temp dir).
+ */
+public final class DataPaths {
+    private static volatile Path dataDir = Paths.get(System.getProperty("kontinuum.dataDir", "."));
+
+    private DataPaths() {}
+
+    public static Path resolve(String fileName) {
+        return dataDir.resolve(fileName);
+    }
+
+    public static Path getDataDir() {
+        return dataDir;
+    }
+
+    public static void setDataDir(Path dir) {
+        dataDir = dir;
+    }
+}
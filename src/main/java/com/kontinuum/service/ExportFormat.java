@@ -0,0 +1,22 @@
+package com.kontinuum.service;
+
+/**
+ * File formats for {@link HistoryExporter} and {@link HistoryImporter}: one file per kind
+ * of data (objectives.csv, completions.csv, ...), one record per line.
+ */
+public enum ExportFormat {
+    // Header line, then comma-separated values; lists are joined with '|'
+    CSV("csv"),
+    // One JSON object per line, no header
+    NDJSON("ndjson");
+
+    public final String extension;
+
+    ExportFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String fileName(String kind) {
+        return kind + "." + extension;
+    }
+}
@@ -0,0 +1,305 @@
+package com.kontinuum.service;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Row-at-a-time CSV / NDJSON files over buffered file channels. Nothing but the current
+ * line is held in memory, so exports and imports run in constant memory whatever the size.
+ */
+final class ExportRows {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char LIST_SEPARATOR = '|';
+
+    private ExportRows() {}
+
+    static class Writer implements Closeable {
+        private final ExportFormat format;
+        private final String[] columns;
+        private final BufferedWriter out;
+        private long rows;
+
+        Writer(Path path, ExportFormat format, String... columns) throws IOException {
+            this.format = format;
+            this.columns = columns;
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            this.out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+            if (format == ExportFormat.CSV) {
+                out.write(String.join(",", columns));
+                out.write('\n');
+            }
+        }
+
+        /**
+         * Writes one record; values line up with the columns. Numbers and booleans stay typed
+         * in NDJSON, a List is written as an array (CSV: joined with '|'), null is omitted.
+         */
+        void row(Object... values) throws IOException {
+            if (values.length != columns.length) {
+                throw new IllegalArgumentException("Expected " + columns.length + " values, got " + values.length);
+            }
+            if (format == ExportFormat.CSV) {
+                writeCsv(values);
+            } else {
+                writeJson(values);
+            }
+            out.write('\n');
+            rows++;
+        }
+
+        long getRows() {
+            return rows;
+        }
+
+        private void writeCsv(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) out.write(',');
+                Object value = values[i];
+                if (value == null) continue;
+                String text = value instanceof List<?> list ? joinList(list) : text(value);
+                if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                    out.write('"');
+                    out.write(text.replace("\"", "\"\""));
+                    out.write('"');
+                } else {
+                    out.write(text);
+                }
+            }
+        }
+
+        private static String joinList(List<?> list) {
+            StringBuilder joined = new StringBuilder();
+            for (Object item : list) {
+                if (!joined.isEmpty()) joined.append(LIST_SEPARATOR);
+                joined.append(item);
+            }
+            return joined.toString();
+        }
+
+        private void writeJson(Object[] values) throws IOException {
+            // Neither closed nor flushed: that would reach through to the channel on every row
+            JsonWriter json = new JsonWriter(out);
+            json.beginObject();
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value == null) continue;
+                json.name(columns[i]);
+                if (value instanceof Number number) {
+                    json.value(number);
+                } else if (value instanceof Boolean bool) {
+                    json.value(bool);
+                } else if (value instanceof List<?> list) {
+                    json.beginArray();
+                    for (Object item : list) {
+                        json.value(String.valueOf(item));
+                    }
+                    json.endArray();
+                } else {
+                    json.value(text(value));
+                }
+            }
+            json.endObject();
+        }
+
+        // Enums by constant name, since some override toString for display
+        private static String text(Object value) {
+            return value instanceof Enum<?> constant ? constant.name() : value.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    // One parsed record; every value is read back as text
+    static class Row {
+        private final Map<String, String> values;
+        private final Map<String, List<String>> lists;
+
+        Row(Map<String, String> values, Map<String, List<String>> lists) {
+            this.values = values;
+            this.lists = lists;
+        }
+
+        // Null if the column is missing or empty
+        String get(String column) {
+            String value = values.get(column);
+            return value == null || value.isEmpty() ? null : value;
+        }
+
+        String require(String column) throws IOException {
+            String value = get(column);
+            if (value == null) throw new IOException("Missing \"" + column + "\"");
+            return value;
+        }
+
+        int getInt(String column, int fallback) throws IOException {
+            String value = get(column);
+            if (value == null) return fallback;
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IOException("\"" + column + "\" is not a number: " + value);
+            }
+        }
+
+        boolean getBoolean(String column) {
+            return Boolean.parseBoolean(get(column));
+        }
+
+        List<String> getList(String column) {
+            List<String> list = lists.get(column);
+            if (list != null) return list;
+            String value = get(column);
+            if (value == null) return Collections.emptyList();
+            return Arrays.asList(value.split("\\" + LIST_SEPARATOR, -1));
+        }
+    }
+
+    static class Reader implements Closeable {
+        private final ExportFormat format;
+        private final FileChannel channel;
+        private final BufferedReader in;
+        private final long size;
+        private String[] header;
+        private long line;
+
+        Reader(Path path, ExportFormat format) throws IOException {
+            this.format = format;
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.size = channel.size();
+            this.in = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+            if (format == ExportFormat.CSV) {
+                String first = in.readLine();
+                line++;
+                header = first == null ? new String[0] : parseCsv(first).toArray(new String[0]);
+            }
+        }
+
+        // The next record, or null at the end of the file; blank lines are skipped
+        Row next() throws IOException {
+            String text;
+            do {
+                text = in.readLine();
+                line++;
+                if (text == null) return null;
+            } while (text.isBlank());
+            return format == ExportFormat.CSV ? csvRow(text) : jsonRow(text);
+        }
+
+        long getLine() {
+            return line;
+        }
+
+        // Bytes consumed so far; runs ahead of the parsed rows by at most one buffer
+        long getPosition() throws IOException {
+            return channel.position();
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        private Row csvRow(String text) throws IOException {
+            // A quoted value may span lines
+            while (openQuote(text)) {
+                String more = in.readLine();
+                line++;
+                if (more == null) throw new IOException("Unterminated quote at line " + line);
+                text = text + "\n" + more;
+            }
+            List<String> fields = parseCsv(text);
+            Map<String, String> values = new HashMap<>();
+            for (int i = 0; i < header.length && i < fields.size(); i++) {
+                values.put(header[i], fields.get(i));
+            }
+            return new Row(values, Collections.emptyMap());
+        }
+
+        private Row jsonRow(String text) throws IOException {
+            JsonObject object;
+            try {
+                JsonElement element = JsonParser.parseString(text);
+                if (!element.isJsonObject()) throw new IOException("Line " + line + " is not a JSON object");
+                object = element.getAsJsonObject();
+            } catch (JsonParseException e) {
+                throw new IOException("Malformed JSON at line " + line, e);
+            }
+            Map<String, String> values = new HashMap<>();
+            Map<String, List<String>> lists = new HashMap<>();
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                JsonElement value = entry.getValue();
+                if (value.isJsonArray()) {
+                    List<String> list = new ArrayList<>();
+                    value.getAsJsonArray().forEach(item -> list.add(item.getAsString()));
+                    lists.put(entry.getKey(), list);
+                } else if (value.isJsonPrimitive()) {
+                    values.put(entry.getKey(), value.getAsString());
+                }
+            }
+            return new Row(values, lists);
+        }
+
+        private static boolean openQuote(String text) {
+            int quotes = 0;
+            for (int i = 0; i < text.length(); i++) {
+                if (text.charAt(i) == '"') quotes++;
+            }
+            return quotes % 2 != 0;
+        }
+
+        private static List<String> parseCsv(String text) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.kontinuum.service;
+
+import com.kontinuum.model.CompletionBitmap;
+import com.kontinuum.model.Mission;
+import com.kontinuum.model.Objective;
+import com.kontinuum.model.ObjectiveCategory;
+import com.kontinuum.model.Penalty;
+import com.kontinuum.model.PenaltyService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Writes completion history, XP, missions and penalties to a directory, one file per kind
+ * (see {@link ExportFormat}). Every file is streamed row by row: archived years are decoded
+ * one at a time and penalty history is read straight from its log, so memory use does not
+ * grow with the length of the history. Read back with {@link HistoryImporter}.
+ */
+public class HistoryExporter {
+    static final String OBJECTIVES = "objectives";
+    static final String COMPLETIONS = "completions";
+    static final String XP = "xp";
+    static final String MISSIONS = "missions";
+    static final String PENALTIES = "penalties";
+
+    static final String[] OBJECTIVE_COLUMNS = {"id", "description", "category", "xp_reward"};
+    static final String[] COMPLETION_COLUMNS = {"objective_id", "date"};
+    static final String[] XP_COLUMNS = {"category", "xp"};
+    static final String[] MISSION_COLUMNS = {"id", "title", "rarity", "xp_reward", "category", "times_completed",
+            "last_completed_date", "accepted", "completed", "conditions"};
+    static final String[] PENALTY_COLUMNS = {"id", "assigned_date", "due_date", "type", "amount", "repeat_count",
+            "severity", "completed", "status"};
+
+    static final String ACTIVE = "active";
+    static final String HISTORY = "history";
+
+    private final ObjectiveManager objectiveManager;
+    private final CategoryXpManager xpManager;
+    private final MissionManager missionManager;
+    private final PenaltyService penaltyService;
+
+    public HistoryExporter(ObjectiveManager objectiveManager, CategoryXpManager xpManager,
+                           MissionManager missionManager, PenaltyService penaltyService) {
+        this.objectiveManager = objectiveManager;
+        this.xpManager = xpManager;
+        this.missionManager = missionManager;
+        this.penaltyService = penaltyService;
+    }
+
+    // Creates the directory if needed and overwrites earlier exports in the same format
+    public TransferSummary export(Path dir, ExportFormat format) throws IOException {
+        Files.createDirectories(dir);
+        exportObjectives(dir.resolve(format.fileName(OBJECTIVES)), format);
+        long completions = exportCompletions(dir.resolve(format.fileName(COMPLETIONS)), format);
+        int xp = exportXp(dir.resolve(format.fileName(XP)), format);
+        int missions = exportMissions(dir.resolve(format.fileName(MISSIONS)), format);
+        long[] penalties = exportPenalties(dir.resolve(format.fileName(PENALTIES)), format);
+        return new TransferSummary(completions, completions, xp, missions, (int) penalties[0], penalties[1], 0);
+    }
+
+    // For reference only: the importer matches completions to the objectives that already exist
+    private void exportObjectives(Path path, ExportFormat format) throws IOException {
+        try (ExportRows.Writer out = new ExportRows.Writer(path, format, OBJECTIVE_COLUMNS)) {
+            for (Objective objective : objectiveManager.getObjectives()) {
+                out.row(objective.getId(), objective.getDescription(), objective.getCategory(), objective.getXpReward());
+            }
+        }
+    }
+
+    // Completed days only, archived years first, then each objective's in-memory days
+    private long exportCompletions(Path path, ExportFormat format) throws IOException {
+        try (ExportRows.Writer out = new ExportRows.Writer(path, format, COMPLETION_COLUMNS)) {
+            CompletionArchive archive = Objective.getHistoryArchive();
+            if (archive != null) {
+                archive.forEachCompleted((id, day) -> out.row(id, LocalDate.ofEpochDay(day)));
+            }
+            for (Objective objective : objectiveManager.getObjectives()) {
+                if (objective.getId() == null) continue;
+                CompletionBitmap completions = objective.getCompletions();
+                for (long day = completions.nextSetDay(CompletionBitmap.NONE); day != CompletionBitmap.NONE;
+                     day = completions.nextSetDay(day + 1)) {
+                    if (archive != null && archive.isArchived(day)) continue;
+                    out.row(objective.getId(), LocalDate.ofEpochDay(day));
+                }
+            }
+            return out.getRows();
+        }
+    }
+
+    private int exportXp(Path path, ExportFormat format) throws IOException {
+        try (ExportRows.Writer out = new ExportRows.Writer(path, format, XP_COLUMNS)) {
+            for (ObjectiveCategory category : ObjectiveCategory.values()) {
+                out.row(category, xpManager.getTracker(category).getXp());
+            }
+            return (int) out.getRows();
+        }
+    }
+
+    private int exportMissions(Path path, ExportFormat format) throws IOException {
+        try (ExportRows.Writer out = new ExportRows.Writer(path, format, MISSION_COLUMNS)) {
+            for (Mission m : missionManager.getAllMissions()) {
+                out.row(m.id, m.title, m.rarity, m.xpReward, m.category, m.timesCompleted,
+                        m.lastCompletedDate, m.isAccepted, m.isCompleted, m.conditions);
+            }
+            return (int) out.getRows();
+        }
+    }
+
+    // Returns {active rows, history rows}
+    private long[] exportPenalties(Path path, ExportFormat format) throws IOException {
+        try (ExportRows.Writer out = new ExportRows.Writer(path, format, PENALTY_COLUMNS)) {
+            for (Penalty penalty : penaltyService.getActivePenalties()) {
+                writePenalty(out, penalty, ACTIVE);
+            }
+            long active = out.getRows();
+            try {
+                penaltyService.getHistory().forEach(penalty -> {
+                    try {
+                        writePenalty(out, penalty, HISTORY);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return new long[] {active, out.getRows() - active};
+        }
+    }
+
+    private static void writePenalty(ExportRows.Writer out, Penalty p, String status) throws IOException {
+        out.row(p.getId(), p.getAssignedDate(), p.getDueDate(), p.getType(), p.getAmount(), p.getRepeatCount(),
+                p.getSeverity(), p.isCompleted(), status);
+    }
+}
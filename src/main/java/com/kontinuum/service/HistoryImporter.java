@@ -0,0 +1,241 @@
+package com.kontinuum.service;
+
+import com.kontinuum.model.BulkCompletionResult;
+import com.kontinuum.model.CompletionChange;
+import com.kontinuum.model.Mission;
+import com.kontinuum.model.MissionTier;
+import com.kontinuum.model.Objective;
+import com.kontinuum.model.ObjectiveCategory;
+import com.kontinuum.model.Penalty;
+import com.kontinuum.model.PenaltySeverity;
+import com.kontinuum.model.PenaltyService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a directory written by {@link HistoryExporter} back into the running services.
+ * Completions are streamed and applied in batches through
+ * {@link ObjectiveManager#applyCompletions}, so each batch is one transaction with one
+ * snapshot write and one event, and the whole history is never held in memory. Completed
+ * days are merged into the existing ones (nothing is un-completed) and rows for objectives
+ * that don't exist here are skipped. XP is set to the exported values when the file has
+ * them, otherwise the imported completions award their XP. The mission board is replaced;
+ * active penalties are merged by id, and penalty history is only imported into an empty history.
+ */
+public class HistoryImporter {
+    private static final int BATCH_SIZE = 10_000;
+
+    // Called on the importing thread after each batch and at the end of each file
+    public interface ProgressListener {
+        void progress(String file, long bytesRead, long totalBytes);
+    }
+
+    private final ObjectiveManager objectiveManager;
+    private final CategoryXpManager xpManager;
+    private final CalendarProgressManager calendarProgressManager;
+    private final MissionManager missionManager;
+    private final PenaltyService penaltyService;
+
+    private ProgressListener progressListener;
+
+    public HistoryImporter(ObjectiveManager objectiveManager, CategoryXpManager xpManager,
+                           CalendarProgressManager calendarProgressManager, MissionManager missionManager,
+                           PenaltyService penaltyService) {
+        this.objectiveManager = objectiveManager;
+        this.xpManager = xpManager;
+        this.calendarProgressManager = calendarProgressManager;
+        this.missionManager = missionManager;
+        this.penaltyService = penaltyService;
+    }
+
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Imports whichever of the export files exist in {@code dir}.
+     *
+     * @throws IllegalStateException if overdue penalties lock the objectives
+     * @throws IOException if a file can't be read or has a malformed row; batches applied
+     *                     before the bad row stay applied
+     */
+    public TransferSummary importFrom(Path dir, ExportFormat format) throws IOException {
+        checkUnlocked();
+        Map<ObjectiveCategory, Integer> xpDelta = new EnumMap<>(ObjectiveCategory.class);
+        long[] completions = importCompletions(dir.resolve(format.fileName(HistoryExporter.COMPLETIONS)), format, xpDelta);
+
+        int xp;
+        Path xpFile = dir.resolve(format.fileName(HistoryExporter.XP));
+        if (Files.exists(xpFile)) {
+            xp = importXp(xpFile, format);
+        } else {
+            xpManager.applyXpDeltas(xpDelta);
+            xp = xpDelta.size();
+        }
+        int missions = importMissions(dir.resolve(format.fileName(HistoryExporter.MISSIONS)), format);
+        long[] penalties = importPenalties(dir.resolve(format.fileName(HistoryExporter.PENALTIES)), format);
+        return new TransferSummary(completions[0], completions[1], xp, missions, (int) penalties[0], penalties[1],
+                completions[2] + penalties[2]);
+    }
+
+    private void checkUnlocked() {
+        if (penaltyService.hasActivePenalties()) {
+            throw new IllegalStateException("Complete all overdue penalties before importing");
+        }
+    }
+
+    // Returns {rows, applied, skipped}
+    private long[] importCompletions(Path path, ExportFormat format, Map<ObjectiveCategory, Integer> xpDelta)
+            throws IOException {
+        if (!Files.exists(path)) return new long[3];
+        Map<String, Objective> byId = new HashMap<>();
+        for (Objective objective : objectiveManager.getObjectives()) {
+            byId.put(objective.getId(), objective);
+        }
+        long rows = 0;
+        long applied = 0;
+        long skipped = 0;
+        List<CompletionChange> batch = new ArrayList<>(BATCH_SIZE);
+        try (ExportRows.Reader in = new ExportRows.Reader(path, format)) {
+            for (ExportRows.Row row; (row = in.next()) != null; ) {
+                rows++;
+                Objective objective = byId.get(row.require("objective_id"));
+                if (objective == null) {
+                    skipped++;
+                    continue;
+                }
+                batch.add(new CompletionChange(objective, parseDate(in, row.require("date")), true));
+                if (batch.size() == BATCH_SIZE) {
+                    applied += applyBatch(batch, xpDelta);
+                    reportProgress(path, in);
+                }
+            }
+            applied += applyBatch(batch, xpDelta);
+            reportProgress(path, in);
+        }
+        return new long[] {rows, applied, skipped};
+    }
+
+    // Same bookkeeping as a bulk change from the API (XP, progress index); clears the batch for reuse
+    private int applyBatch(List<CompletionChange> batch, Map<ObjectiveCategory, Integer> xpDelta) {
+        if (batch.isEmpty()) return 0;
+        // A penalty may go overdue mid-import; applyCompletions would then silently do nothing
+        checkUnlocked();
+        BulkCompletionResult result = objectiveManager.applyCompletions(batch);
+        batch.clear();
+        // Per-category completion counts are for the day on screen; the UI recounts it afterwards
+        result.getXpDelta().forEach((category, delta) -> xpDelta.merge(category, delta, Integer::sum));
+        calendarProgressManager.completionsChanged(result);
+        return result.getApplied().size();
+    }
+
+    private int importXp(Path path, ExportFormat format) throws IOException {
+        int count = 0;
+        try (ExportRows.Reader in = new ExportRows.Reader(path, format)) {
+            for (ExportRows.Row row; (row = in.next()) != null; ) {
+                ObjectiveCategory category = parseEnum(in, ObjectiveCategory.class, row.require("category"));
+                xpManager.setXp(category, row.getInt("xp", 0));
+                count++;
+            }
+            reportProgress(path, in);
+        }
+        return count;
+    }
+
+    private int importMissions(Path path, ExportFormat format) throws IOException {
+        if (!Files.exists(path)) return 0;
+        // The board is at most a handful of missions
+        List<Mission> missions = new ArrayList<>();
+        try (ExportRows.Reader in = new ExportRows.Reader(path, format)) {
+            for (ExportRows.Row row; (row = in.next()) != null; ) {
+                Mission mission = new Mission(row.require("id"), row.get("title"),
+                        parseEnum(in, MissionTier.class, row.require("rarity")), row.getInt("xp_reward", 0),
+                        row.get("category"), new ArrayList<>(row.getList("conditions")));
+                mission.timesCompleted = row.getInt("times_completed", 0);
+                String lastCompleted = row.get("last_completed_date");
+                mission.lastCompletedDate = lastCompleted == null ? null : parseDate(in, lastCompleted);
+                mission.isAccepted = row.getBoolean("accepted");
+                mission.isCompleted = row.getBoolean("completed");
+                missions.add(mission);
+            }
+            reportProgress(path, in);
+        }
+        missionManager.restoreMissions(missions);
+        return missions.size();
+    }
+
+    // Returns {active, history, skipped}; history rows go straight to the log as they are read
+    private long[] importPenalties(Path path, ExportFormat format) throws IOException {
+        if (!Files.exists(path)) return new long[3];
+        boolean importHistory = penaltyService.getHistory().size() == 0;
+        List<Penalty> active = new ArrayList<>();
+        long history = 0;
+        // Rows come in log order, which is by logging date, not assigned date; logging each one no
+        // earlier than the one before keeps the segments (and newest-first paging) in that order
+        LocalDate loggedOn = LocalDate.MIN;
+        long skipped = 0;
+        try (ExportRows.Reader in = new ExportRows.Reader(path, format)) {
+            for (ExportRows.Row row; (row = in.next()) != null; ) {
+                boolean isHistory = HistoryExporter.HISTORY.equals(row.get("status"));
+                if (isHistory && !importHistory) {
+                    skipped++;
+                    continue;
+                }
+                Penalty penalty = new Penalty(row.require("id"),
+                        parseDate(in, row.require("assigned_date")), parseDate(in, row.require("due_date")),
+                        parseEnum(in, Penalty.Type.class, row.require("type")),
+                        row.getInt("amount", 0), row.getInt("repeat_count", 0),
+                        parseEnum(in, PenaltySeverity.Severity.class, row.require("severity")));
+                if (row.getBoolean("completed")) {
+                    penalty.markCompleted();
+                }
+                if (isHistory) {
+                    if (penalty.getAssignedDate().isAfter(loggedOn)) {
+                        loggedOn = penalty.getAssignedDate();
+                    }
+                    penaltyService.getHistory().log(penalty, loggedOn);
+                    history++;
+                } else {
+                    active.add(penalty);
+                }
+                if ((active.size() + history) % BATCH_SIZE == 0) {
+                    reportProgress(path, in);
+                }
+            }
+            reportProgress(path, in);
+        }
+        // Also saves the history counters logged above
+        penaltyService.restoreActivePenalties(active);
+        return new long[] {active.size(), history, skipped};
+    }
+
+    private void reportProgress(Path path, ExportRows.Reader in) throws IOException {
+        if (progressListener != null) {
+            progressListener.progress(path.getFileName().toString(), Math.min(in.getPosition(), in.getSize()), in.getSize());
+        }
+    }
+
+    private static LocalDate parseDate(ExportRows.Reader in, String value) throws IOException {
+        try {
+            return LocalDate.parse(value);
+        } catch (RuntimeException e) {
+            throw new IOException("Bad date \"" + value + "\" at line " + in.getLine(), e);
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(ExportRows.Reader in, Class<E> type, String value) throws IOException {
+        try {
+            return Enum.valueOf(type, value);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown " + type.getSimpleName() + " \"" + value + "\" at line " + in.getLine(), e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.kontinuum.service;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.kontinuum.model.CompletionBitmap;
+import com.kontinuum.model.Mission;
+import com.kontinuum.model.Objective;
+import com.kontinuum.model.ObjectiveCategory;
+import com.kontinuum.model.Penalty;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared Gson instance and adapters for everything persisted as JSON. The model classes are
+ * read and written by hand-written streaming adapters, so no reflection happens at load time,
+ * and the list/map adapters are looked up once here instead of per call.
+ * <p>
+ * The output is compact (the mission store used to be pretty-printed) and not HTML-escaped:
+ * {@code < > = & '} are written as-is rather than as unicode escapes. Either form
+ * reads back the same, but files are not byte-identical to what older versions wrote.
+ */
+public final class JsonCodecs {
+    public static final TypeToken<List<Objective>> OBJECTIVE_LIST = new TypeToken<>() {};
+    public static final TypeToken<List<Mission>> MISSION_LIST = new TypeToken<>() {};
+    public static final TypeToken<List<Penalty>> PENALTY_LIST = new TypeToken<>() {};
+    public static final TypeToken<Map<ObjectiveCategory, Integer>> XP_MAP = new TypeToken<>() {};
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter())
+            .registerTypeAdapter(CompletionBitmap.class, new CompletionBitmapAdapter())
+            .registerTypeAdapter(Objective.class, new ObjectiveAdapter())
+            .registerTypeAdapter(Mission.class, new MissionAdapter())
+            .registerTypeAdapter(Penalty.class, new PenaltyAdapter())
+            .registerTypeAdapter(XP_MAP.getType(), new XpMapAdapter())
+            .disableHtmlEscaping()
+            .create();
+
+    private static final TypeAdapter<List<Objective>> OBJECTIVES = GSON.getAdapter(OBJECTIVE_LIST);
+    private static final TypeAdapter<List<Mission>> MISSIONS = GSON.getAdapter(MISSION_LIST);
+    private static final TypeAdapter<List<Penalty>> PENALTIES = GSON.getAdapter(PENALTY_LIST);
+    private static final TypeAdapter<Map<ObjectiveCategory, Integer>> XP = GSON.getAdapter(XP_MAP);
+
+    private JsonCodecs() {}
+
+    public static Gson gson() {
+        return GSON;
+    }
+
+    public static TypeAdapter<List<Objective>> objectives() {
+        return OBJECTIVES;
+    }
+
+    public static TypeAdapter<List<Mission>> missions() {
+        return MISSIONS;
+    }
+
+    public static TypeAdapter<List<Penalty>> penalties() {
+        return PENALTIES;
+    }
+
+    public static TypeAdapter<Map<ObjectiveCategory, Integer>> xpMap() {
+        return XP;
+    }
+
+    /**
+     * Parses an ISO date ("2025-07-21") to an epoch day without going through a
+     * DateTimeFormatter. Anything not in that exact shape falls back to {@link LocalDate#parse}.
+     */
+    public static long parseEpochDay(String text) {
+        if (text.length() == 10 && text.charAt(4) == '-' && text.charAt(7) == '-') {
+            int year = digits(text, 0, 4);
+            int month = digits(text, 5, 7);
+            int day = digits(text, 8, 10);
+            if (year >= 0 && month >= 0 && day >= 0) {
+                try {
+                    return LocalDate.of(year, month, day).toEpochDay();
+                } catch (DateTimeException e) {
+                    throw new DateTimeParseException(e.getMessage(), text, 0);
+                }
+            }
+        }
+        return LocalDate.parse(text).toEpochDay();
+    }
+
+    public static LocalDate parseDate(String text) {
+        return LocalDate.ofEpochDay(parseEpochDay(text));
+    }
+
+    // Value of text[from, to) if it is all ASCII digits, else -1
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    // Unknown names decode to null, as Gson's own enum adapter does
+    static <E extends Enum<E>> E parseEnum(Class<E> type, String name) {
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
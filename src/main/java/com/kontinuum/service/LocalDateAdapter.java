@@ -2,6 +2,7 @@ package com.kontinuum.service;
 
 import com.google.gson.TypeAdapter;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 
 import java.io.IOException;
@@ -20,12 +21,12 @@ public class LocalDateAdapter extends TypeAdapter<LocalDate> {
 
     @Override
     public LocalDate read(JsonReader in) throws IOException {
-        if (in.peek() == null) {
+        if (in.peek() == JsonToken.NULL) {
             in.nextNull();
             return null;
         }
         // Parse LocalDate from ISO-8601 string
         String dateStr = in.nextString();
-        return LocalDate.parse(dateStr);
+        return JsonCodecs.parseDate(dateStr);
     }
 }
@@ -0,0 +1,101 @@
+package com.kontinuum.service;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.kontinuum.model.Mission;
+import com.kontinuum.model.MissionTier;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Streaming codec for {@link Mission}, matching the field names of the reflective format.
+ */
+public class MissionAdapter extends TypeAdapter<Mission> {
+    @Override
+    public void write(JsonWriter out, Mission value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (value.id != null) {
+            out.name("id").value(value.id);
+        }
+        if (value.title != null) {
+            out.name("title").value(value.title);
+        }
+        if (value.rarity != null) {
+            out.name("rarity").value(value.rarity.name());
+        }
+        out.name("xpReward").value(value.xpReward);
+        out.name("timesCompleted").value(value.timesCompleted);
+        if (value.category != null) {
+            out.name("category").value(value.category);
+        }
+        if (value.lastCompletedDate != null) {
+            out.name("lastCompletedDate").value(value.lastCompletedDate.toString());
+        }
+        out.name("isAccepted").value(value.isAccepted);
+        out.name("isCompleted").value(value.isCompleted);
+        if (value.conditions != null) {
+            out.name("conditions").beginArray();
+            for (String condition : value.conditions) {
+                if (condition == null) {
+                    out.nullValue();
+                } else {
+                    out.value(condition);
+                }
+            }
+            out.endArray();
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Mission read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        Mission mission = new Mission();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id" -> mission.id = in.nextString();
+                case "title" -> mission.title = in.nextString();
+                case "rarity" -> mission.rarity = JsonCodecs.parseEnum(MissionTier.class, in.nextString());
+                case "xpReward" -> mission.xpReward = in.nextInt();
+                case "timesCompleted" -> mission.timesCompleted = in.nextInt();
+                case "category" -> mission.category = in.nextString();
+                case "lastCompletedDate" -> mission.lastCompletedDate = JsonCodecs.parseDate(in.nextString());
+                case "isAccepted" -> mission.isAccepted = in.nextBoolean();
+                case "isCompleted" -> mission.isCompleted = in.nextBoolean();
+                case "conditions" -> {
+                    mission.conditions = new ArrayList<>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        if (in.peek() == JsonToken.NULL) {
+                            in.nextNull();
+                            mission.conditions.add(null);
+                        } else {
+                            mission.conditions.add(in.nextString());
+                        }
+                    }
+                    in.endArray();
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return mission;
+    }
+}
@@ -1,46 +1,47 @@
 package com.kontinuum.service;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.kontinuum.metrics.StoreMetrics;
 import com.kontinuum.model.Mission;
 
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.lang.reflect.Type;
-import java.time.LocalDate;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 public class MissionDataStore {
-    private static final String MISSIONS_FILE = "missions.json";
-
-    private static final Gson gson = new GsonBuilder()
-            .registerTypeAdapter(LocalDate.class, new LocalDateAdapter()) // Register adapter here
-            .setPrettyPrinting()
-            .create();
-
-    private static final Type missionListType = new TypeToken<List<Mission>>() {}.getType();
+    private static final StoreMetrics METRICS = new StoreMetrics("missions");
 
     public static List<Mission> loadMissions() {
-        File file = new File(MISSIONS_FILE);
-        if (!file.exists()) return new ArrayList<>();
-
-        try (FileReader reader = new FileReader(file)) {
-            return gson.fromJson(reader, missionListType);
+        long begin = METRICS.load.start();
+        try (InputStream in = DataFileStore.getDefault().openSection(DataFileStore.MISSIONS)) {
+            if (in == null) return new ArrayList<>();
+            List<Mission> missions = JsonCodecs.missions().fromJson(new InputStreamReader(in, StandardCharsets.UTF_8));
+            return missions != null ? missions : new ArrayList<>();
         } catch (IOException e) {
+            METRICS.errors.increment();
             e.printStackTrace();
             return new ArrayList<>();
+        } finally {
+            METRICS.load.stop(begin);
         }
     }
 
     public static void saveMissions(List<Mission> missions) {
-        try (FileWriter writer = new FileWriter(MISSIONS_FILE)) {
-            gson.toJson(missions, writer);
+        long begin = METRICS.save.start();
+        try {
+            DataFileStore.getDefault().commit(DataFileStore.MISSIONS, encode(missions));
         } catch (IOException e) {
+            METRICS.errors.increment();
             e.printStackTrace();
+        } finally {
+            METRICS.save.stop(begin);
         }
     }
+
+    public static byte[] encode(List<Mission> missions) {
+        long begin = METRICS.encode.start();
+        return METRICS.encoded(begin, JsonCodecs.missions().toJson(missions).getBytes(StandardCharsets.UTF_8));
+    }
 }
@@ -1,29 +1,59 @@
 package com.kontinuum.service;
 
+import com.kontinuum.event.DomainEvent;
+import com.kontinuum.event.EventBus;
+import com.kontinuum.jfr.MissionBoardEvent;
 import com.kontinuum.model.Mission;
 import com.kontinuum.model.MissionTier;
+import com.kontinuum.model.ObjectiveCategory;
 
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
+/**
+ * Daily mission board. The mission list is an immutable snapshot replaced on every change
+ * (copy-on-write): readers on any thread get a consistent list without locking, and the
+ * missions in a published snapshot are never modified. Changes are serialized on this object.
+ */
 public class MissionManager {
-    private List<Mission> missions;
+    private volatile List<Mission> missions;
     private final Random random = new Random();
-    private LocalDate lastResetDate = null;
+    private volatile LocalDate lastResetDate = null;
 
     private static final int MAX_MISSIONS = 10;
     private static final int MAX_ACCEPTED = 5;
 
+    private PersistenceService persistenceService;
+    private EventBus eventBus;
+    // Snapshot for the persistence thread to write
+    private volatile List<Mission> pendingMissions;
+
     public MissionManager() {
-        this.missions = MissionDataStore.loadMissions();
+        this.missions = withUniqueIds(MissionDataStore.loadMissions().stream().filter(Objects::nonNull).toList());
         this.lastResetDate = loadLastResetDate();
     }
 
+    // Once set, mission writes are coalesced on the persistence thread instead of happening inline
+    public void setPersistenceService(PersistenceService persistenceService) {
+        this.persistenceService = persistenceService;
+        persistenceService.register(DataFileStore.MISSIONS, () -> MissionDataStore.encode(pendingMissions));
+        persistenceService.register(DataFileStore.MISSION_META, () -> MissionMetaDataStore.encode(lastResetDate));
+    }
+
+    public void setEventBus(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    // Unmodifiable snapshot
     public List<Mission> getAllMissions() {
         return missions;
     }
@@ -40,27 +70,88 @@ public class MissionManager {
                 .collect(Collectors.toList());
     }
 
-    public void acceptMission(Mission mission) {
-        if (getAcceptedMissions().size() < MAX_ACCEPTED && !mission.isAccepted && !mission.isCompleted) {
-            mission.isAccepted = true;
-            save();
-        } else {
-            // Optionally notify max accepted missions reached
+    /**
+     * Missions are matched by id, so a copy from an older snapshot works too.
+     *
+     * @return true if the mission was accepted by this call
+     */
+    public synchronized boolean acceptMission(Mission mission) {
+        Mission current = find(mission.id);
+        if (current == null || getAcceptedMissions().size() >= MAX_ACCEPTED || current.isAccepted || current.isCompleted) {
+            return false;
         }
+        Mission accepted = new Mission(current);
+        accepted.isAccepted = true;
+        replace(current, accepted);
+        return true;
     }
 
-    public void unacceptMission(Mission mission) {
-        mission.isAccepted = false;
+    public synchronized boolean unacceptMission(Mission mission) {
+        Mission current = find(mission.id);
+        if (current == null || !current.isAccepted) return false;
+        Mission released = new Mission(current);
+        released.isAccepted = false;
+        replace(current, released);
+        return true;
+    }
+
+    // Returns true if the mission was completed by this call (so its XP should be awarded once)
+    public synchronized boolean completeMission(Mission mission) {
+        Mission current = find(mission.id);
+        if (current == null || !current.isAccepted || current.isCompleted) return false;
+        Mission completed = new Mission(current);
+        completed.isCompleted = true;
+        completed.isAccepted = false;  // Mark as no longer accepted after completion
+        completed.timesCompleted++;
+        completed.lastCompletedDate = LocalDate.now();
+        replace(current, completed);
+        return true;
+    }
+
+    // Replaces the whole board, e.g. with missions read back from an export
+    public synchronized void restoreMissions(List<Mission> restored) {
+        missions = withUniqueIds(restored);
         save();
+        publish(new DomainEvent.MissionStateChanged(null));
     }
 
-    public void completeMission(Mission mission) {
-        if (mission.isAccepted && !mission.isCompleted) {
-            mission.isCompleted = true;
-            mission.isAccepted = false;  // Mark as no longer accepted after completion
-            mission.timesCompleted++;
-            mission.lastCompletedDate = LocalDate.now();
-            save();
+    private Mission find(String id) {
+        for (Mission mission : missions) {
+            if (Objects.equals(mission.id, id)) return mission;
+        }
+        return null;
+    }
+
+    // Publishes a new snapshot with one mission swapped for its updated copy
+    private void replace(Mission current, Mission updated) {
+        List<Mission> next = new ArrayList<>(missions);
+        next.set(next.indexOf(current), updated);
+        missions = List.copyOf(next);
+        save();
+        publish(new DomainEvent.MissionStateChanged(updated.id));
+    }
+
+    private void publish(DomainEvent event) {
+        if (eventBus != null) {
+            eventBus.publish(event);
+        }
+    }
+
+    // Objective category a mission's XP is awarded to, or null for an unknown mission category
+    public static ObjectiveCategory xpCategoryFor(String missionCategory) {
+        if (missionCategory == null) return null;
+        switch (missionCategory.toLowerCase()) {
+            case "fitness":
+            case "health":
+                return ObjectiveCategory.HEALTH;
+            case "learning":
+            case "creative":
+            case "focus":
+                return ObjectiveCategory.PRODUCTION;
+            case "social":
+                return ObjectiveCategory.RAPPING;
+            default:
+                return null;
         }
     }
 
@@ -69,8 +160,10 @@ public class MissionManager {
      * Generates new missions depending on player level and preserves accepted missions.
      */
     public void generateDailyMissions(int playerLevel) {
-        LocalDate today = LocalDate.now();
+        generateDailyMissions(playerLevel, LocalDate.now());
+    }
 
+    public synchronized void generateDailyMissions(int playerLevel, LocalDate today) {
         if (lastResetDate == null || !lastResetDate.equals(today)) {
             resetBoard(playerLevel);
             lastResetDate = today;
@@ -79,18 +172,30 @@ public class MissionManager {
     }
 
     private void resetBoard(int playerLevel) {
+        MissionBoardEvent event = new MissionBoardEvent();
+        event.begin();
         // Keep accepted missions, remove all others
-        missions = missions.stream()
+        List<Mission> next = missions.stream()
                 .filter(m -> m.isAccepted)
                 .collect(Collectors.toList());
 
-        int toGenerate = MAX_MISSIONS - missions.size();
+        int toGenerate = MAX_MISSIONS - next.size();
 
         for (int i = 0; i < toGenerate; i++) {
-            missions.add(generateRandomMission(playerLevel));
+            next.add(generateRandomMission(playerLevel));
         }
 
+        missions = List.copyOf(next);
         save();
+        publish(new DomainEvent.MissionStateChanged(null));
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.playerLevel = playerLevel;
+            event.kept = MAX_MISSIONS - toGenerate;
+            event.generated = toGenerate;
+            event.commit();
+        }
     }
 
     private Mission generateRandomMission(int playerLevel) {
@@ -157,12 +262,33 @@ public class MissionManager {
         };
     }
 
-    private String generateId() {
-        return "mission-" + System.currentTimeMillis() + "-" + random.nextInt(9999);
+    // Ids are the missions' identity (see find), so they must not collide even within one board
+    private static String generateId() {
+        return "mission-" + UUID.randomUUID();
+    }
+
+    // Boards saved or exported before ids were unique can hold the same id twice; later copies get new ones
+    private static List<Mission> withUniqueIds(List<Mission> board) {
+        Set<String> seen = new HashSet<>();
+        List<Mission> unique = new ArrayList<>(board.size());
+        for (Mission mission : board) {
+            if (mission.id == null || !seen.add(mission.id)) {
+                mission = new Mission(mission);
+                mission.id = generateId();
+                seen.add(mission.id);
+            }
+            unique.add(mission);
+        }
+        return List.copyOf(unique);
     }
 
     private void save() {
-        MissionDataStore.saveMissions(missions);
+        if (persistenceService != null) {
+            pendingMissions = missions;
+            persistenceService.markDirty(DataFileStore.MISSIONS);
+        } else {
+            MissionDataStore.saveMissions(missions);
+        }
     }
 
     private LocalDate loadLastResetDate() {
@@ -170,7 +296,11 @@ public class MissionManager {
     }
 
     private void saveLastResetDate(LocalDate date) {
-        MissionMetaDataStore.saveLastResetDate(date);
+        if (persistenceService != null) {
+            persistenceService.markDirty(DataFileStore.MISSION_META);
+        } else {
+            MissionMetaDataStore.saveLastResetDate(date);
+        }
     }
 
     public Duration getTimeUntilReset() {
@@ -0,0 +1,74 @@
+package com.kontinuum.service;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.kontinuum.model.CompletionBitmap;
+import com.kontinuum.model.Objective;
+import com.kontinuum.model.ObjectiveCategory;
+
+import java.io.IOException;
+
+/**
+ * Streaming codec for {@link Objective}, writing the same fields reflection did so existing
+ * snapshots still load. Completion days go straight into the objective's bitmap.
+ */
+public class ObjectiveAdapter extends TypeAdapter<Objective> {
+    private final CompletionBitmapAdapter completions = new CompletionBitmapAdapter();
+
+    @Override
+    public void write(JsonWriter out, Objective value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (value.getId() != null) {
+            out.name("id").value(value.getId());
+        }
+        if (value.getDescription() != null) {
+            out.name("description").value(value.getDescription());
+        }
+        out.name("xpReward").value(value.getXpReward());
+        if (value.getCategory() != null) {
+            out.name("category").value(value.getCategory().name());
+        }
+        out.name("completedByDate");
+        completions.write(out, value.getCompletions());
+        out.endObject();
+    }
+
+    @Override
+    public Objective read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String id = null;
+        String description = null;
+        int xpReward = 0;
+        ObjectiveCategory category = null;
+        CompletionBitmap bitmap = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id" -> id = in.nextString();
+                case "description" -> description = in.nextString();
+                case "xpReward" -> xpReward = in.nextInt();
+                case "category" -> category = JsonCodecs.parseEnum(ObjectiveCategory.class, in.nextString());
+                case "completedByDate" -> bitmap = completions.read(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new Objective(id, description, xpReward, category, bitmap);
+    }
+}
@@ -1,61 +1,315 @@
 package com.kontinuum.service;
 
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.kontinuum.event.DomainEvent;
+import com.kontinuum.event.EventBus;
+import com.kontinuum.metrics.MetricsRegistry;
+import com.kontinuum.metrics.StoreMetrics;
+import com.kontinuum.metrics.Timer;
 import com.kontinuum.model.*;
 
 import java.io.*;
-import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class ObjectiveManager {
-    private List<Objective> objectives = new ArrayList<>();
-    private static final String FILE_PATH = "objectives.json";
-    private static final String RESET_DATE_FILE = "lastResetDate.txt";
-    private LocalDate lastResetDate = LocalDate.now();
+
+    // Copy-on-write: iterated on every thread, changed only when objectives are added or reloaded
+    private volatile List<Objective> objectives = new CopyOnWriteArrayList<>();
+    private static final String JOURNAL_FILE = "objectives.journal";
+    // Fold the journal into a fresh snapshot once it holds this many toggles
+    private static final int COMPACTION_THRESHOLD = 500;
+    private static final StoreMetrics METRICS = new StoreMetrics("objectives");
+    private static final Timer JOURNAL_APPEND_TIME = MetricsRegistry.getDefault().timer("objectives.journal.append");
     private final PenaltyService penaltyService;
+    private final CompletionJournal journal = new CompletionJournal(DataPaths.resolve(JOURNAL_FILE));
+    private boolean journalingEnabled = true;
+    private PersistenceService persistenceService;
+    private EventBus eventBus;
+    // Journal length when the pending snapshot was encoded; entries up to here are in it
+    private volatile int pendingJournalMark;
+    // Completion changes lock only their objective's stripe, so toggles of different
+    // objectives don't wait on each other while the read-check-write-journal sequence stays atomic
+    private static final int COMPLETION_STRIPES = 16;
+    private final ReentrantLock[] completionStripes = new ReentrantLock[COMPLETION_STRIPES];
 
     public ObjectiveManager(PenaltyService penaltyService) {
         this.penaltyService = penaltyService;
-        loadLastResetDate();
+        for (int i = 0; i < COMPLETION_STRIPES; i++) {
+            completionStripes[i] = new ReentrantLock();
+        }
+    }
+
+    public void setEventBus(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    // Once set, snapshot writes (compaction) happen on the persistence thread
+    public void setPersistenceService(PersistenceService persistenceService) {
+        this.persistenceService = persistenceService;
+        persistenceService.register(DataFileStore.OBJECTIVES, () -> {
+            pendingJournalMark = journal.size();
+            return encodeObjectives();
+        }, () -> journal.truncateThrough(pendingJournalMark));
     }
 
+    // Replaces the objectives with the saved ones; views showing the list hear about it
     public void loadObjectives() {
-        try (Reader reader = new FileReader(FILE_PATH)) {
-            Gson gson = new Gson();
-            Type type = new TypeToken<List<Objective>>() {}.getType();
-            objectives = gson.fromJson(reader, type);
-
-            // Reset objectives if day changed
-            if (!lastResetDate.isEqual(LocalDate.now())) {
-                resetObjectives();
-                lastResetDate = LocalDate.now();
-                saveLastResetDate();
+        readObjectives();
+        publishObjectivesChanged();
+    }
+
+    /**
+     * Adds a new objective (with a fresh id if it has none) and saves the list.
+     */
+    public void addObjective(Objective objective) {
+        objective.ensureId();
+        objectives.add(objective);
+        saveObjectives();
+        publishObjectivesChanged();
+    }
+
+    private void publishObjectivesChanged() {
+        if (eventBus != null) {
+            eventBus.publish(new DomainEvent.ObjectivesChanged());
+        }
+    }
+
+    private void readObjectives() {
+        long begin = METRICS.load.start();
+        try (InputStream in = DataFileStore.getDefault().openSection(DataFileStore.OBJECTIVES)) {
+            if (in == null) {
+                objectives = getDefaultObjectives();
                 saveObjectives();
+                return;
+            }
+            List<Objective> loaded = JsonCodecs.objectives().fromJson(new InputStreamReader(in, StandardCharsets.UTF_8));
+            objectives = loaded != null ? new CopyOnWriteArrayList<>(loaded) : getDefaultObjectives();
 
-                // Evaluate penalties for yesterday's incomplete objectives
-                penaltyService.evaluateYesterdayPenalties();
+            boolean idsAssigned = false;
+            Map<String, Objective> byId = new HashMap<>();
+            for (Objective obj : objectives) {
+                idsAssigned |= obj.ensureId();
+                byId.put(obj.getId(), obj);
+            }
+            journal.replay(byId);
+            METRICS.load.stop(begin);
+            boolean archived = archiveOldDays();
+            // Journal entries reference ids, so they must be in the snapshot before any toggle
+            if (idsAssigned || archived) {
+                saveObjectives();
             }
+            // Completions are kept per day, so a new day needs no reset; the history is what
+            // penalty evaluation (run by the caller once everything is loaded) reads
         } catch (IOException e) {
+            METRICS.errors.increment();
             objectives = getDefaultObjectives();
             saveObjectives();
         }
     }
 
+    // Moves completions older than the hot months into the history archive
+    private boolean archiveOldDays() {
+        CompletionArchive archive = Objective.getHistoryArchive();
+        if (archive == null) return false;
+        try {
+            return archive.compact(objectives, CompletionArchive.hotStart(LocalDate.now()));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Writes a full snapshot of all objectives and drops the journal entries it covers.
+     */
     public void saveObjectives() {
-        try (Writer writer = new FileWriter(FILE_PATH)) {
-            Gson gson = new Gson();
-            gson.toJson(objectives, writer);
+        // Entries appended while encoding may or may not be in the snapshot, so only those
+        // counted before encoding starts are dropped; replaying the rest is harmless
+        int journalMark = journal.size();
+        long begin = METRICS.save.start();
+        try {
+            DataFileStore.getDefault().commit(DataFileStore.OBJECTIVES, encodeObjectives());
         } catch (IOException e) {
+            METRICS.errors.increment();
             e.printStackTrace();
+            return;
+        } finally {
+            METRICS.save.stop(begin);
         }
+        journal.truncateThrough(journalMark);
+    }
+
+    private byte[] encodeObjectives() {
+        long begin = METRICS.encode.start();
+        return METRICS.encoded(begin, JsonCodecs.objectives().toJson(objectives).getBytes(StandardCharsets.UTF_8));
     }
 
+    /**
+     * Changes the completion state of one objective and persists it.
+     * In journaled mode this appends one small record instead of rewriting the objectives snapshot;
+     * the journal is compacted into a snapshot every {@value #COMPACTION_THRESHOLD} toggles.
+     *
+     * @return true if the state actually changed
+     */
+    public boolean setObjectiveCompleted(Objective objective, LocalDate date, boolean completed) {
+        ReentrantLock stripe = stripeFor(objective);
+        stripe.lock();
+        try {
+            boolean before = objective.isCompleted(date);
+            objective.setCompleted(date, completed);
+            if (objective.isCompleted(date) == before) return false;
+
+            if (journalingEnabled) {
+                // Appended under the stripe so the journal order matches the order the toggles applied
+                long begin = JOURNAL_APPEND_TIME.start();
+                journal.append(objective.getId(), date, completed);
+                JOURNAL_APPEND_TIME.stop(begin);
+            }
+        } finally {
+            stripe.unlock();
+        }
+
+        if (!journalingEnabled || journal.size() >= COMPACTION_THRESHOLD) {
+            requestSave();
+        }
+        if (eventBus != null) {
+            eventBus.publish(new DomainEvent.ObjectiveToggled(objective.getId(), objective.getCategory(), date, completed));
+        }
+        return true;
+    }
+
+    /**
+     * Applies many completion changes as one transaction: all stripes are held while they
+     * are applied, repeated changes to the same objective and day net out, the XP delta per
+     * category is summed in the same pass, and the result is persisted with one snapshot
+     * write (atomic on disk, unlike a run of journal lines) and announced with one
+     * {@link DomainEvent.CompletionsChanged} event. Nothing is applied while penalties lock
+     * the objectives. Callers apply {@link BulkCompletionResult#getXpDelta()} and update the
+     * progress index, as they do for single toggles.
+     *
+     * @throws IllegalArgumentException if a change has no objective or date; nothing is applied then
+     */
+    public BulkCompletionResult applyCompletions(List<CompletionChange> changes) {
+        for (CompletionChange change : changes) {
+            if (change == null || change.objective() == null || change.date() == null) {
+                throw new IllegalArgumentException("Incomplete completion change: " + change);
+            }
+        }
+        if (changes.isEmpty()) return BulkCompletionResult.none();
+        if (penaltyService != null && penaltyService.hasActivePenalties()) {
+            System.out.println("❌ Cannot complete objectives — active penalties exist.");
+            return BulkCompletionResult.none();
+        }
+
+        CompletionArchive archive = Objective.getHistoryArchive();
+        List<CompletionChange> applied = new ArrayList<>();
+        Map<ObjectiveCategory, Integer> xpDelta = new EnumMap<>(ObjectiveCategory.class);
+        lockAllStripes();
+        try {
+            // Last requested state per (objective, day), in first-seen order
+            Map<ObjectiveDay, Boolean> requested = new LinkedHashMap<>();
+            for (CompletionChange change : changes) {
+                requested.put(new ObjectiveDay(change.objective(), change.date()), change.completed());
+            }
+            List<CompletionChange> archived = new ArrayList<>();
+            for (Map.Entry<ObjectiveDay, Boolean> entry : requested.entrySet()) {
+                Objective objective = entry.getKey().objective();
+                LocalDate date = entry.getKey().date();
+                boolean completed = entry.getValue();
+                if (objective.isCompleted(date) == completed) continue;
+
+                CompletionChange change = new CompletionChange(objective, date, completed);
+                if (archive != null && archive.isArchived(date.toEpochDay())) {
+                    archived.add(change);
+                } else {
+                    objective.restoreCompletion(date, completed);
+                }
+                applied.add(change);
+                if (objective.getCategory() != null) {
+                    xpDelta.merge(objective.getCategory(), completed ? objective.getXpReward() : -objective.getXpReward(), Integer::sum);
+                }
+            }
+            if (!archived.isEmpty()) {
+                archive.setAll(archived);
+            }
+        } finally {
+            unlockAllStripes();
+        }
+        xpDelta.values().removeIf(delta -> delta == 0);
+        if (applied.isEmpty()) return new BulkCompletionResult(applied, xpDelta, changes.size());
+
+        requestSave();
+        if (eventBus != null) {
+            List<DomainEvent.ObjectiveToggled> toggles = new ArrayList<>(applied.size());
+            for (CompletionChange change : applied) {
+                Objective objective = change.objective();
+                toggles.add(new DomainEvent.ObjectiveToggled(objective.getId(), objective.getCategory(), change.date(), change.completed()));
+            }
+            eventBus.publish(new DomainEvent.CompletionsChanged(toggles));
+        }
+        return new BulkCompletionResult(applied, xpDelta, changes.size());
+    }
+
+    private record ObjectiveDay(Objective objective, LocalDate date) {}
+
+    // Always in index order, so two threads taking every stripe can't deadlock
+    private void lockAllStripes() {
+        for (ReentrantLock stripe : completionStripes) {
+            stripe.lock();
+        }
+    }
+
+    private void unlockAllStripes() {
+        for (ReentrantLock stripe : completionStripes) {
+            stripe.unlock();
+        }
+    }
+
+    private ReentrantLock stripeFor(Objective objective) {
+        return completionStripes[Math.floorMod(Objects.hashCode(objective.getId()), COMPLETION_STRIPES)];
+    }
+
+    private void requestSave() {
+        if (persistenceService != null) {
+            persistenceService.markDirty(DataFileStore.OBJECTIVES);
+        } else {
+            saveObjectives();
+        }
+    }
+
+    public void setJournalingEnabled(boolean journalingEnabled) {
+        if (this.journalingEnabled && !journalingEnabled) {
+            saveObjectives();
+        }
+        this.journalingEnabled = journalingEnabled;
+    }
+
+    // Folds any pending journal entries into the snapshot; call on shutdown
+    public void compactJournal() {
+        if (journal.size() > 0) {
+            saveObjectives();
+        }
+        journal.close();
+    }
+
+    // Clears every objective's hot-tier completions (all recorded days, not just today)
     public void resetObjectives() {
-        for (Objective obj : objectives) {
-            obj.reset();
+        lockAllStripes();
+        try {
+            for (Objective obj : objectives) {
+                obj.reset();
+            }
+        } finally {
+            unlockAllStripes();
         }
     }
 
@@ -85,7 +339,7 @@ public class ObjectiveManager {
     }
 
     private List<Objective> getDefaultObjectives() {
-        List<Objective> list = new ArrayList<>();
+        List<Objective> list = new CopyOnWriteArrayList<>();
         list.add(new Objective("Make 1 beat", 50, ObjectiveCategory.PRODUCTION));
         list.add(new Objective("Drink 1 gallon of water", 25, ObjectiveCategory.HEALTH));
         list.add(new Objective("Write 8 bars", 40, ObjectiveCategory.RAPPING));
@@ -93,24 +347,4 @@ public class ObjectiveManager {
         list.add(new Objective("Study a plugin video", 20, ObjectiveCategory.PRODUCTION));
         return list;
     }
-
-    private void loadLastResetDate() {
-        File file = new File(RESET_DATE_FILE);
-        if (file.exists()) {
-            try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-                String line = br.readLine();
-                lastResetDate = LocalDate.parse(line);
-            } catch (Exception e) {
-                lastResetDate = LocalDate.now();
-            }
-        }
-    }
-
-    private void saveLastResetDate() {
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter(RESET_DATE_FILE))) {
-            bw.write(lastResetDate.toString());
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-    }
 }
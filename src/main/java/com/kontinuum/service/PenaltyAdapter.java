@@ -0,0 +1,88 @@
+package com.kontinuum.service;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.kontinuum.model.Penalty;
+import com.kontinuum.model.PenaltySeverity;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Streaming codec for {@link Penalty}. Dates are ISO strings, enums their names.
+ */
+public class PenaltyAdapter extends TypeAdapter<Penalty> {
+    @Override
+    public void write(JsonWriter out, Penalty value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        if (value.getId() != null) {
+            out.name("id").value(value.getId());
+        }
+        if (value.getAssignedDate() != null) {
+            out.name("assignedDate").value(value.getAssignedDate().toString());
+        }
+        if (value.getDueDate() != null) {
+            out.name("dueDate").value(value.getDueDate().toString());
+        }
+        if (value.getType() != null) {
+            out.name("type").value(value.getType().name());
+        }
+        out.name("amount").value(value.getAmount());
+        out.name("repeatCount").value(value.getRepeatCount());
+        if (value.getSeverity() != null) {
+            out.name("severity").value(value.getSeverity().name());
+        }
+        out.name("completed").value(value.isCompleted());
+        out.endObject();
+    }
+
+    @Override
+    public Penalty read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        String id = null;
+        LocalDate assignedDate = null;
+        LocalDate dueDate = null;
+        Penalty.Type type = null;
+        int amount = 0;
+        int repeatCount = 0;
+        PenaltySeverity.Severity severity = null;
+        boolean completed = false;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id" -> id = in.nextString();
+                case "assignedDate" -> assignedDate = JsonCodecs.parseDate(in.nextString());
+                case "dueDate" -> dueDate = JsonCodecs.parseDate(in.nextString());
+                case "type" -> type = JsonCodecs.parseEnum(Penalty.Type.class, in.nextString());
+                case "amount" -> amount = in.nextInt();
+                case "repeatCount" -> repeatCount = in.nextInt();
+                case "severity" -> severity = JsonCodecs.parseEnum(PenaltySeverity.Severity.class, in.nextString());
+                case "completed" -> completed = in.nextBoolean();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        Penalty penalty = new Penalty(id, assignedDate, dueDate, type, amount, repeatCount, severity);
+        if (completed) {
+            penalty.markCompleted();
+        }
+        return penalty;
+    }
+}
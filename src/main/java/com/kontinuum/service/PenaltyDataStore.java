@@ -0,0 +1,234 @@
+package com.kontinuum.service;
+
+import com.kontinuum.metrics.StoreMetrics;
+import com.kontinuum.model.Penalty;
+import com.kontinuum.model.PenaltySeverity;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Compact binary encoding for penalty state, kept in the penalties section of the data file.
+ *
+ * Layout (version 2): int magic "KPEN", short version, the active penalties as int count +
+ * records, then three per-type count tables (repeat counts, completed history, missed
+ * history) each as byte entries + (byte type ordinal, int count), then the missed-day
+ * streak (int streak, int last evaluated epoch day or {@link #NO_DAY}) and the history log
+ * position the counters cover (boolean present, UTF year-month, long offset).
+ * A penalty record is: UTF id, byte type ordinal, byte severity ordinal, int assigned
+ * epoch day, int due epoch day, int amount, int repeat count, boolean completed.
+ * Enum constants may only ever be appended, never reordered.
+ *
+ * Version 1 stored the full completed and missed history lists after the active ones; they
+ * are read into {@link Snapshot#legacyCompleted}/{@link Snapshot#legacyMissed} so the caller
+ * can move them into the {@link PenaltyHistoryLog}.
+ */
+public class PenaltyDataStore {
+    private static final int MAGIC = 0x4B50454E; // "KPEN"
+    private static final short VERSION = 2;
+    private static final int NO_DAY = Integer.MIN_VALUE;
+
+    private static final Penalty.Type[] TYPES = Penalty.Type.values();
+    private static final PenaltySeverity.Severity[] SEVERITIES = PenaltySeverity.Severity.values();
+    private static final StoreMetrics METRICS = new StoreMetrics("penalties");
+
+    public static class Snapshot {
+        public final List<Penalty> active;
+        public final Map<Penalty.Type, Integer> repeatCounts;
+        public final Map<Penalty.Type, Integer> completedCounts;
+        public final Map<Penalty.Type, Integer> missedCounts;
+        public final int missedStreak;
+        public final LocalDate streakEvaluatedDate;
+        public final PenaltyHistoryLog.Position historyEnd;
+        // Only filled when reading a version 1 snapshot
+        public final List<Penalty> legacyCompleted = new ArrayList<>();
+        public final List<Penalty> legacyMissed = new ArrayList<>();
+
+        public Snapshot(List<Penalty> active, Map<Penalty.Type, Integer> repeatCounts,
+                        Map<Penalty.Type, Integer> completedCounts, Map<Penalty.Type, Integer> missedCounts,
+                        int missedStreak, LocalDate streakEvaluatedDate, PenaltyHistoryLog.Position historyEnd) {
+            this.active = active;
+            this.repeatCounts = repeatCounts;
+            this.completedCounts = completedCounts;
+            this.missedCounts = missedCounts;
+            this.missedStreak = missedStreak;
+            this.streakEvaluatedDate = streakEvaluatedDate;
+            this.historyEnd = historyEnd;
+        }
+
+        public static Snapshot empty() {
+            return new Snapshot(new ArrayList<>(), new EnumMap<>(Penalty.Type.class), new EnumMap<>(Penalty.Type.class),
+                    new EnumMap<>(Penalty.Type.class), 0, null, null);
+        }
+    }
+
+    /**
+     * Loads the saved state, or an empty one if there is none. A section that isn't in this
+     * format (e.g. the old Java-serialized file imported as-is) is logged and ignored; it is
+     * replaced on the next save.
+     */
+    public static Snapshot load() {
+        InputStream section = DataFileStore.getDefault().openSection(DataFileStore.PENALTIES);
+        if (section == null) return Snapshot.empty();
+
+        long begin = METRICS.load.start();
+        try (DataInputStream in = new DataInputStream(section)) {
+            return read(in);
+        } catch (IOException | RuntimeException e) {
+            METRICS.errors.increment();
+            System.err.println("Could not read saved penalties, starting with none: " + e);
+            return Snapshot.empty();
+        } finally {
+            METRICS.load.stop(begin);
+        }
+    }
+
+    public static void save(Snapshot snapshot) {
+        long begin = METRICS.save.start();
+        try {
+            DataFileStore.getDefault().commit(DataFileStore.PENALTIES, encode(snapshot));
+        } catch (IOException e) {
+            METRICS.errors.increment();
+            e.printStackTrace();
+        } finally {
+            METRICS.save.stop(begin);
+        }
+    }
+
+    public static byte[] encode(Snapshot snapshot) {
+        long begin = METRICS.encode.start();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            write(out, snapshot);
+        } catch (IOException e) {
+            // Writing to memory doesn't fail
+            throw new UncheckedIOException(e);
+        }
+        return METRICS.encoded(begin, bytes.toByteArray());
+    }
+
+    static void write(DataOutputStream out, Snapshot snapshot) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        writePenalties(out, snapshot.active);
+        writeCounts(out, snapshot.repeatCounts);
+        writeCounts(out, snapshot.completedCounts);
+        writeCounts(out, snapshot.missedCounts);
+
+        out.writeInt(snapshot.missedStreak);
+        out.writeInt(snapshot.streakEvaluatedDate == null ? NO_DAY : (int) snapshot.streakEvaluatedDate.toEpochDay());
+
+        out.writeBoolean(snapshot.historyEnd != null);
+        if (snapshot.historyEnd != null) {
+            out.writeUTF(snapshot.historyEnd.segment.toString());
+            out.writeLong(snapshot.historyEnd.offset);
+        }
+    }
+
+    static Snapshot read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a penalty store (missing header)");
+        }
+        short version = in.readShort();
+        if (version == 1) {
+            return readVersion1(in);
+        }
+        if (version != VERSION) {
+            throw new IOException("Unsupported penalty store version " + version);
+        }
+
+        List<Penalty> active = readPenalties(in);
+        Map<Penalty.Type, Integer> repeatCounts = readCounts(in);
+        Map<Penalty.Type, Integer> completedCounts = readCounts(in);
+        Map<Penalty.Type, Integer> missedCounts = readCounts(in);
+
+        int missedStreak = in.readInt();
+        int streakDay = in.readInt();
+        LocalDate streakEvaluatedDate = streakDay == NO_DAY ? null : LocalDate.ofEpochDay(streakDay);
+
+        PenaltyHistoryLog.Position historyEnd = null;
+        if (in.readBoolean()) {
+            historyEnd = new PenaltyHistoryLog.Position(YearMonth.parse(in.readUTF()), in.readLong());
+        }
+        return new Snapshot(active, repeatCounts, completedCounts, missedCounts, missedStreak, streakEvaluatedDate, historyEnd);
+    }
+
+    private static Snapshot readVersion1(DataInputStream in) throws IOException {
+        List<Penalty> active = readPenalties(in);
+        List<Penalty> completedHistory = readPenalties(in);
+        List<Penalty> missedHistory = readPenalties(in);
+        Map<Penalty.Type, Integer> repeatCounts = readCounts(in);
+
+        Snapshot snapshot = new Snapshot(active, repeatCounts, new EnumMap<>(Penalty.Type.class),
+                new EnumMap<>(Penalty.Type.class), 0, null, null);
+        snapshot.legacyCompleted.addAll(completedHistory);
+        snapshot.legacyMissed.addAll(missedHistory);
+        return snapshot;
+    }
+
+    private static void writeCounts(DataOutputStream out, Map<Penalty.Type, Integer> counts) throws IOException {
+        out.writeByte(counts.size());
+        for (Map.Entry<Penalty.Type, Integer> entry : counts.entrySet()) {
+            out.writeByte(entry.getKey().ordinal());
+            out.writeInt(entry.getValue());
+        }
+    }
+
+    private static Map<Penalty.Type, Integer> readCounts(DataInputStream in) throws IOException {
+        Map<Penalty.Type, Integer> counts = new EnumMap<>(Penalty.Type.class);
+        int typeCount = in.readUnsignedByte();
+        for (int i = 0; i < typeCount; i++) {
+            counts.put(TYPES[in.readUnsignedByte()], in.readInt());
+        }
+        return counts;
+    }
+
+    private static void writePenalties(DataOutputStream out, List<Penalty> penalties) throws IOException {
+        out.writeInt(penalties.size());
+        for (Penalty penalty : penalties) {
+            writePenalty(out, penalty);
+        }
+    }
+
+    private static List<Penalty> readPenalties(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Corrupt penalty count " + count);
+        }
+        List<Penalty> penalties = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            penalties.add(readPenalty(in));
+        }
+        return penalties;
+    }
+
+    static void writePenalty(DataOutputStream out, Penalty penalty) throws IOException {
+        out.writeUTF(penalty.getId());
+        out.writeByte(penalty.getType().ordinal());
+        out.writeByte(penalty.getSeverity().ordinal());
+        out.writeInt((int) penalty.getAssignedDate().toEpochDay());
+        out.writeInt((int) penalty.getDueDate().toEpochDay());
+        out.writeInt(penalty.getAmount());
+        out.writeInt(penalty.getRepeatCount());
+        out.writeBoolean(penalty.isCompleted());
+    }
+
+    static Penalty readPenalty(DataInputStream in) throws IOException {
+        String id = in.readUTF();
+        Penalty.Type type = TYPES[in.readUnsignedByte()];
+        PenaltySeverity.Severity severity = SEVERITIES[in.readUnsignedByte()];
+        LocalDate assignedDate = LocalDate.ofEpochDay(in.readInt());
+        LocalDate dueDate = LocalDate.ofEpochDay(in.readInt());
+        int amount = in.readInt();
+        int repeatCount = in.readInt();
+        boolean completed = in.readBoolean();
+
+        Penalty penalty = new Penalty(id, assignedDate, dueDate, type, amount, repeatCount, severity);
+        if (completed) {
+            penalty.markCompleted();
+        }
+        return penalty;
+    }
+}
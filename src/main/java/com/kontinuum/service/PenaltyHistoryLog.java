@@ -0,0 +1,226 @@
+package com.kontinuum.service;
+
+import com.kontinuum.model.Penalty;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Append-only penalty history split into one segment file per month (penalty-history/2025-07.seg).
+ * Records use the penalty record layout of {@link PenaltyDataStore}. Only the current month's
+ * segment is ever written; older segments are immutable, so their record counts are cached
+ * and paged reads only decode the segments a page actually touches.
+ */
+public class PenaltyHistoryLog {
+    private static final String DEFAULT_DIR = "penalty-history";
+    private static final String SUFFIX = ".seg";
+
+    private final Path dir;
+    // Record count per segment, filled in lazily
+    private final Map<YearMonth, Integer> recordCounts = new HashMap<>();
+    // Segments whose tail has been checked for a torn record in this session
+    private final Set<YearMonth> verifiedForAppend = new HashSet<>();
+
+    /**
+     * End of the log: the last segment written and the byte offset just past its last record.
+     * Stored with the penalty snapshot so counters can catch up on records appended after it.
+     */
+    public static class Position implements Comparable<Position> {
+        public final YearMonth segment;
+        public final long offset;
+
+        public Position(YearMonth segment, long offset) {
+            this.segment = segment;
+            this.offset = offset;
+        }
+
+        // Log order: by segment, then by offset within it
+        @Override
+        public int compareTo(Position other) {
+            int bySegment = segment.compareTo(other.segment);
+            return bySegment != 0 ? bySegment : Long.compare(offset, other.offset);
+        }
+    }
+
+    public PenaltyHistoryLog(Path dir) {
+        this.dir = dir;
+    }
+
+    public static PenaltyHistoryLog openDefault() {
+        return new PenaltyHistoryLog(DataPaths.resolve(DEFAULT_DIR));
+    }
+
+    /**
+     * Appends a record to the segment for {@code loggedOn}'s month.
+     *
+     * @return the position just past the new record; only the end of the log if
+     *         {@code loggedOn} is in the newest segment
+     */
+    public synchronized Position append(Penalty penalty, LocalDate loggedOn) throws IOException {
+        YearMonth month = YearMonth.from(loggedOn);
+        Path segment = segmentPath(month);
+        Files.createDirectories(dir);
+        if (verifiedForAppend.add(month)) {
+            dropTornTail(month);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            PenaltyDataStore.writePenalty(out, penalty);
+        }
+        try (OutputStream out = Files.newOutputStream(segment, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            out.write(bytes.toByteArray());
+        }
+        recordCounts.computeIfPresent(month, (m, count) -> count + 1);
+        return new Position(month, Files.size(segment));
+    }
+
+    /**
+     * Passes every record after {@code from} (oldest first) to the consumer; used to bring
+     * counters saved at {@code from} up to date. A null position means from the beginning.
+     */
+    public synchronized void readFrom(Position from, Consumer<Penalty> consumer) throws IOException {
+        for (YearMonth month : segments()) {
+            if (from != null && month.isBefore(from.segment)) continue;
+            long skip = from != null && month.equals(from.segment) ? from.offset : 0;
+            readSegment(month, skip, consumer);
+        }
+    }
+
+    public synchronized Position end() throws IOException {
+        List<YearMonth> months = segments();
+        if (months.isEmpty()) return null;
+        YearMonth last = months.get(months.size() - 1);
+        return new Position(last, Files.size(segmentPath(last)));
+    }
+
+    /**
+     * One page of history, newest first.
+     */
+    public synchronized List<Penalty> readPage(int page, int pageSize) throws IOException {
+        int skip = page * pageSize;
+        List<Penalty> result = new ArrayList<>(pageSize);
+        List<YearMonth> months = segments();
+        for (int i = months.size() - 1; i >= 0 && result.size() < pageSize; i--) {
+            YearMonth month = months.get(i);
+            int count = recordCount(month);
+            if (skip >= count) {
+                skip -= count;
+                continue;
+            }
+            List<Penalty> records = new ArrayList<>(count);
+            readSegment(month, 0, records::add);
+            for (int r = records.size() - 1 - skip; r >= 0 && result.size() < pageSize; r--) {
+                result.add(records.get(r));
+            }
+            skip = 0;
+        }
+        return result;
+    }
+
+    public synchronized int size() throws IOException {
+        int total = 0;
+        for (YearMonth month : segments()) {
+            total += recordCount(month);
+        }
+        return total;
+    }
+
+    private int recordCount(YearMonth month) throws IOException {
+        Integer cached = recordCounts.get(month);
+        if (cached != null) return cached;
+        int[] count = new int[1];
+        readSegment(month, 0, penalty -> count[0]++);
+        recordCounts.put(month, count[0]);
+        return count[0];
+    }
+
+    // Returns the offset just past the last complete record
+    private long readSegment(YearMonth month, long skip, Consumer<Penalty> consumer) throws IOException {
+        Path segment = segmentPath(month);
+        if (!Files.exists(segment)) return 0;
+
+        try (InputStream raw = Files.newInputStream(segment)) {
+            raw.skipNBytes(Math.min(skip, Files.size(segment)));
+            CountingInputStream counting = new CountingInputStream(new BufferedInputStream(raw));
+            DataInputStream in = new DataInputStream(counting);
+            long end = skip;
+            while (true) {
+                Penalty penalty;
+                try {
+                    penalty = PenaltyDataStore.readPenalty(in);
+                } catch (EOFException | RuntimeException e) {
+                    // End of segment, or a record torn by a crash mid-append
+                    return end;
+                }
+                end = skip + counting.count;
+                consumer.accept(penalty);
+            }
+        }
+    }
+
+    // A crash mid-append can leave a partial record; cut it off before appending after it
+    private void dropTornTail(YearMonth month) throws IOException {
+        Path segment = segmentPath(month);
+        if (!Files.exists(segment)) return;
+        long validEnd = readSegment(month, 0, penalty -> { });
+        if (validEnd < Files.size(segment)) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                channel.truncate(validEnd);
+            }
+            recordCounts.remove(month);
+        }
+    }
+
+    private List<YearMonth> segments() throws IOException {
+        if (!Files.isDirectory(dir)) return Collections.emptyList();
+        List<YearMonth> months = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .forEach(name -> {
+                        try {
+                            months.add(YearMonth.parse(name.substring(0, name.length() - SUFFIX.length())));
+                        } catch (RuntimeException e) {
+                            // not a segment
+                        }
+                    });
+        }
+        Collections.sort(months);
+        return months;
+    }
+
+    private Path segmentPath(YearMonth month) {
+        return dir.resolve(month + SUFFIX);
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            int n = super.read(buffer, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.kontinuum.service;
+
+import com.kontinuum.metrics.Counter;
+import com.kontinuum.metrics.MetricsRegistry;
+import com.kontinuum.metrics.Timer;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind persistence for the sections of the data file.
+ * Managers register one encoder per section and call {@link #markDirty} instead of writing
+ * on the caller's (usually the FX) thread. Marks arriving within {@value #COALESCE_DELAY_MS} ms
+ * are coalesced, and every dirty section is then committed to {@link DataFileStore} in one
+ * atomic write on a background virtual thread.
+ * Stores that keep their own files (the yearly history archives) register a {@link Flushable}
+ * instead; it is called on the same thread, after the data file commit.
+ * {@link #shutdown()} must run on exit (Application.stop) to flush whatever is still pending.
+ * The service registers no shutdown hook of its own; the front end owns the single exit path.
+ */
+public class PersistenceService {
+    private static final long COALESCE_DELAY_MS = 250;
+    private static final Timer FLUSH_TIME = MetricsRegistry.getDefault().timer("persistence.flush");
+    // Encoders and commits that failed and were left dirty for the next flush
+    private static final Counter FLUSH_ERRORS = MetricsRegistry.getDefault().counter("persistence.errors");
+
+    private final Map<String, Store> stores = new ConcurrentHashMap<>();
+    private final Set<String> dirtyStores = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object writeLock = new Object();
+    private final ScheduledExecutorService executor =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("kontinuum-persistence").factory());
+    private final AtomicBoolean shutDown = new AtomicBoolean();
+
+    private static class Store {
+        final Supplier<byte[]> encoder;
+        final Runnable onCommitted;
+        // Set instead of encoder for stores outside the data file
+        final Flushable files;
+
+        Store(Supplier<byte[]> encoder, Runnable onCommitted, Flushable files) {
+            this.encoder = encoder;
+            this.onCommitted = onCommitted;
+            this.files = files;
+        }
+    }
+
+    public void register(String section, Supplier<byte[]> encoder) {
+        register(section, encoder, null);
+    }
+
+    /**
+     * @param onCommitted run after the encoded bytes are durably on disk (may be null)
+     */
+    public void register(String section, Supplier<byte[]> encoder, Runnable onCommitted) {
+        stores.put(section, new Store(encoder, onCommitted, null));
+    }
+
+    // For stores that write their own files; a flush that throws leaves the store dirty
+    public void register(String name, Flushable files) {
+        stores.put(name, new Store(null, null, files));
+    }
+
+    public void markDirty(String section) {
+        if (!stores.containsKey(section)) {
+            throw new IllegalArgumentException("Unknown store: " + section);
+        }
+        dirtyStores.add(section);
+        if (shutDown.get()) {
+            flush();
+            return;
+        }
+        if (flushScheduled.compareAndSet(false, true)) {
+            executor.schedule(this::flush, COALESCE_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Encodes every dirty section and commits them together, on the calling thread.
+     */
+    public void flush() {
+        flushScheduled.set(false);
+        synchronized (writeLock) {
+            long begin = FLUSH_TIME.start();
+            // Only flushes that wrote something are timed; empty ones would drown them out
+            if (flushDirty()) {
+                FLUSH_TIME.stop(begin);
+            }
+        }
+    }
+
+    // Returns true if anything was encoded or flushed, whether or not it succeeded
+    private boolean flushDirty() {
+        Map<String, byte[]> batch = new LinkedHashMap<>();
+        List<String> fileStores = new ArrayList<>();
+        for (String section : new ArrayList<>(dirtyStores)) {
+            if (!dirtyStores.remove(section)) continue;
+            Store store = stores.get(section);
+            if (store.files != null) {
+                fileStores.add(section);
+                continue;
+            }
+            try {
+                batch.put(section, store.encoder.get());
+            } catch (RuntimeException e) {
+                // Leave it dirty so the next flush retries
+                FLUSH_ERRORS.increment();
+                e.printStackTrace();
+                dirtyStores.add(section);
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            commit(batch);
+        }
+        for (String name : fileStores) {
+            try {
+                stores.get(name).files.flush();
+            } catch (IOException | RuntimeException e) {
+                FLUSH_ERRORS.increment();
+                e.printStackTrace();
+                dirtyStores.add(name);
+            }
+        }
+        return !batch.isEmpty() || !fileStores.isEmpty();
+    }
+
+    private void commit(Map<String, byte[]> batch) {
+        try {
+            DataFileStore.getDefault().commit(batch);
+        } catch (IOException e) {
+            FLUSH_ERRORS.increment();
+            e.printStackTrace();
+            dirtyStores.addAll(batch.keySet());
+            return;
+        }
+
+        for (String section : batch.keySet()) {
+            Runnable onCommitted = stores.get(section).onCommitted;
+            if (onCommitted != null) onCommitted.run();
+        }
+    }
+
+    public boolean hasPendingWrites() {
+        return !dirtyStores.isEmpty();
+    }
+
+    // Idempotent and safe to race: only the first caller stops the executor and flushes
+    public void shutdown() {
+        if (!shutDown.compareAndSet(false, true)) return;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+}
@@ -1,7 +0,0 @@
-package com.kontinuum.service;
-
-import java.time.LocalDate;
-
-public interface ProgressUpdateListener {
-    void onProgressUpdated(LocalDate date);
-}
@@ -0,0 +1,20 @@
+package com.kontinuum.service;
+
+/**
+ * What a {@link HistoryExporter} wrote or a {@link HistoryImporter} read, in rows per file.
+ * For imports, {@code completionsApplied} counts the days that actually changed and
+ * {@code skipped} the rows naming objectives that don't exist here.
+ */
+public record TransferSummary(long completions, long completionsApplied, int xpCategories, int missions,
+                              int activePenalties, long penaltyHistory, long skipped) {
+
+    @Override
+    public String toString() {
+        return completions + " completions (" + completionsApplied + " new), "
+                + xpCategories + " XP categories, "
+                + missions + " missions, "
+                + activePenalties + " active penalties, "
+                + penaltyHistory + " penalty history entries"
+                + (skipped > 0 ? ", " + skipped + " rows skipped" : "");
+    }
+}
@@ -0,0 +1,52 @@
+package com.kontinuum.service;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.kontinuum.model.ObjectiveCategory;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * XP per category as {"PRODUCTION": 120, ...}, decoded into an {@link EnumMap}.
+ * Unknown categories are skipped.
+ */
+public class XpMapAdapter extends TypeAdapter<Map<ObjectiveCategory, Integer>> {
+    @Override
+    public void write(JsonWriter out, Map<ObjectiveCategory, Integer> value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        for (Map.Entry<ObjectiveCategory, Integer> entry : value.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) continue;
+            out.name(entry.getKey().name()).value(entry.getValue());
+        }
+        out.endObject();
+    }
+
+    @Override
+    public Map<ObjectiveCategory, Integer> read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+
+        Map<ObjectiveCategory, Integer> xp = new EnumMap<>(ObjectiveCategory.class);
+        in.beginObject();
+        while (in.hasNext()) {
+            ObjectiveCategory category = JsonCodecs.parseEnum(ObjectiveCategory.class, in.nextName());
+            if (category == null || in.peek() == JsonToken.NULL) {
+                in.skipValue();
+                continue;
+            }
+            xp.put(category, in.nextInt());
+        }
+        in.endObject();
+        return xp;
+    }
+}
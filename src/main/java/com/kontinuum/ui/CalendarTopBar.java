@@ -1,12 +1,15 @@
 package com.kontinuum.ui;
 
+import com.kontinuum.event.DomainEvent;
+import com.kontinuum.event.EventBus;
+import com.kontinuum.jfr.UiRebuildEvent;
+import com.kontinuum.metrics.MetricsRegistry;
+import com.kontinuum.metrics.Timer;
 import com.kontinuum.model.DailyProgress;
 import com.kontinuum.service.CalendarProgressManager;
-import com.kontinuum.service.ProgressUpdateListener;
-import javafx.application.Platform;
+import javafx.animation.AnimationTimer;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
-import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.layout.*;
@@ -18,28 +21,48 @@ import javafx.scene.text.Text;
 
 import java.time.LocalDate;
 import java.time.format.TextStyle;
-import java.util.HashMap;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+
+/**
+ * Week strip with one progress ring per day plus a large ring for the selected date.
+ * The seven day cells are built once; navigation, selection and progress updates only
+ * change the text and ring offset of the cells involved. Toggles arrive from the event bus
+ * once per pulse, and each affected day is redrawn once however often it was toggled.
+ */
+public class CalendarTopBar extends VBox {
+    private static final long ANIMATION_NANOS = 250_000_000L;
+    private static final Timer SHOW_WEEK_TIME = MetricsRegistry.getDefault().timer("ui.calendar.showWeek");
+    private static final Timer COMPLETIONS_TIME = MetricsRegistry.getDefault().timer("ui.calendar.completionsChanged");
+    private static final String SELECTED_STYLE = "-fx-border-color: #2196F3; -fx-border-width: 2px; -fx-border-radius: 50%;";
 
-public class CalendarTopBar extends VBox implements ProgressUpdateListener {
     private final CalendarProgressManager progressManager;
     private LocalDate currentWeekStart = LocalDate.now().with(java.time.DayOfWeek.MONDAY);
     private LocalDate selectedDate = LocalDate.now();
     private final Label fullDateLabel = new Label();
 
-    private final Map<LocalDate, Double> previousRatios = new HashMap<>();
-    private final Map<LocalDate, Circle> dateToProgressCircle = new HashMap<>();
-    private Circle selectedProgressCircle;
-
-    private HBox topRow;
-    private HBox daysBox;
-    private VBox leftCircleBox;
-    private StackPane bigProgressStack;
+    private final DayCell[] dayCells = new DayCell[7];
+    private ProgressRing bigRing;
+
+    // Rings currently moving toward a new ratio, all advanced by the one timer below
+    private final Set<ProgressRing> animatingRings = new LinkedHashSet<>();
+    private final AnimationTimer ringAnimator = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            animatingRings.removeIf(ring -> ring.step(now));
+            if (animatingRings.isEmpty()) {
+                stop();
+            }
+        }
+    };
 
-    public CalendarTopBar(CalendarProgressManager progressManager) {
+    public CalendarTopBar(CalendarProgressManager progressManager, EventBus eventBus) {
         this.progressManager = progressManager;
-        this.progressManager.addListener(this);
+        eventBus.subscribe(DomainEvent.CompletionEvent.class, this::onCompletionsChanged);
 
         setSpacing(10);
         setAlignment(Pos.CENTER_LEFT);
@@ -47,194 +70,227 @@ public class CalendarTopBar extends VBox implements ProgressUpdateListener {
         setPadding(new Insets(10));
 
         buildInitialUI();
-        initializePreviousRatios();
-        updateSmallDateCircles();
-        updateBigCircle();
+        showWeek();
+        showSelectedDate(false);
     }
 
     private void buildInitialUI() {
-        topRow = new HBox(10);
+        HBox topRow = new HBox(10);
         topRow.setAlignment(Pos.CENTER_LEFT);
 
         Button prev = new Button("<");
         prev.setOnAction(e -> {
             currentWeekStart = currentWeekStart.minusWeeks(1);
-            updateSmallDateCircles();
-            updateBigCircle();
+            showWeek();
         });
 
         Button next = new Button(">");
         next.setOnAction(e -> {
             currentWeekStart = currentWeekStart.plusWeeks(1);
-            updateSmallDateCircles();
-            updateBigCircle();
+            showWeek();
         });
 
-        daysBox = new HBox(5);
+        HBox daysBox = new HBox(5);
         daysBox.setAlignment(Pos.CENTER);
+        for (int i = 0; i < dayCells.length; i++) {
+            dayCells[i] = new DayCell();
+            daysBox.getChildren().add(dayCells[i].box);
+        }
 
         fullDateLabel.setFont(Font.font(14));
 
-        leftCircleBox = new VBox(5);
+        VBox leftCircleBox = new VBox(5);
         leftCircleBox.setAlignment(Pos.CENTER);
 
-        // Create big circle once and keep reference to progressCircle inside it
-        bigProgressStack = createProgressCircle(30, 0.0, "0%");
-        bigProgressStack.setMaxSize(68, 68);
-        bigProgressStack.setPrefSize(68, 68);
-
-        Node bigShape = bigProgressStack.getChildren().get(1);
-        if (bigShape instanceof Circle) {
-            selectedProgressCircle = (Circle) bigShape;
-            double radius = selectedProgressCircle.getRadius();
-            double circumference = 2 * Math.PI * radius;
-            selectedProgressCircle.getStrokeDashArray().setAll(circumference, circumference);
-            selectedProgressCircle.setStrokeDashOffset(circumference);
-            selectedProgressCircle.setStroke(Color.LIMEGREEN);
-            selectedProgressCircle.setStrokeWidth(6);
-            selectedProgressCircle.setFill(Color.TRANSPARENT);
-            selectedProgressCircle.setRotate(-90);
-            selectedProgressCircle.setStrokeLineCap(StrokeLineCap.ROUND);
-        }
+        bigRing = new ProgressRing(30);
+        bigRing.stack.setMaxSize(68, 68);
+        bigRing.stack.setPrefSize(68, 68);
 
-        leftCircleBox.getChildren().addAll(fullDateLabel, bigProgressStack);
+        leftCircleBox.getChildren().addAll(fullDateLabel, bigRing.stack);
 
         topRow.getChildren().addAll(leftCircleBox, prev, daysBox, next);
         getChildren().add(topRow);
     }
 
-    private void initializePreviousRatios() {
+    // Points the seven cells at the current week; one range query, no node churn
+    private void showWeek() {
+        UiRebuildEvent event = new UiRebuildEvent();
+        event.begin();
+        long begin = SHOW_WEEK_TIME.start();
         Map<LocalDate, DailyProgress> weekProgress = progressManager.getWeekProgress(currentWeekStart);
-        for (LocalDate date : weekProgress.keySet()) {
-            DailyProgress dp = weekProgress.get(date);
-            previousRatios.putIfAbsent(date, dp.getCompletionRatio());
+        int i = 0;
+        for (Map.Entry<LocalDate, DailyProgress> entry : weekProgress.entrySet()) {
+            dayCells[i++].show(entry.getKey(), entry.getValue().getCompletionRatio());
+        }
+        SHOW_WEEK_TIME.stop(begin);
+        event.commit("ui.calendar.showWeek", i);
+    }
+
+    private void showSelectedDate(boolean animate) {
+        DailyProgress selectedProgress = progressManager.getProgressForDate(selectedDate);
+        if (selectedProgress == null) return;
+
+        fullDateLabel.setText(selectedDate.getMonth() + " " + selectedDate.getDayOfMonth() + ", " + selectedDate.getYear());
+        bigRing.text.setText(selectedProgress.getCompletionPercentage() + "%");
+        setRatio(bigRing, selectedProgress.getCompletionRatio(), animate);
+    }
+
+    private void select(LocalDate date) {
+        DayCell previous = cellFor(selectedDate);
+        selectedDate = date;
+        if (previous != null) {
+            previous.updateSelection();
         }
-        if (!previousRatios.containsKey(selectedDate)) {
-            DailyProgress dp = progressManager.getProgressForDate(selectedDate);
-            previousRatios.put(selectedDate, dp.getCompletionRatio());
+        DayCell current = cellFor(date);
+        if (current != null) {
+            current.updateSelection();
+        }
+        showSelectedDate(false);
+        if (dateSelectedListener != null) {
+            dateSelectedListener.onDateSelected(selectedDate);
         }
     }
 
-    private void updateSmallDateCircles() {
-        daysBox.getChildren().clear();
-        dateToProgressCircle.clear();
+    private void onCompletionsChanged(List<DomainEvent.CompletionEvent> events) {
+        UiRebuildEvent rebuild = new UiRebuildEvent();
+        rebuild.begin();
+        long begin = COMPLETIONS_TIME.start();
+        Set<LocalDate> dates = new LinkedHashSet<>();
+        for (DomainEvent.CompletionEvent event : events) {
+            switch (event) {
+                case DomainEvent.ObjectiveToggled toggle -> dates.add(toggle.date());
+                case DomainEvent.CompletionsChanged bulk -> bulk.changes().forEach(toggle -> dates.add(toggle.date()));
+            }
+        }
+        for (LocalDate date : dates) {
+            DayCell cell = cellFor(date);
+            if (cell != null) {
+                setRatio(cell.ring, progressManager.getProgressForDate(date).getCompletionRatio(), true);
+            }
+        }
+        if (dates.contains(selectedDate)) {
+            showSelectedDate(true);
+        }
+        COMPLETIONS_TIME.stop(begin);
+        rebuild.commit("ui.calendar.completionsChanged", dates.size());
+    }
 
-        Map<LocalDate, DailyProgress> weekProgress = progressManager.getWeekProgress(currentWeekStart);
+    private DayCell cellFor(LocalDate date) {
+        long index = ChronoUnit.DAYS.between(currentWeekStart, date);
+        return index >= 0 && index < dayCells.length ? dayCells[(int) index] : null;
+    }
 
-        for (Map.Entry<LocalDate, DailyProgress> entry : weekProgress.entrySet()) {
-            LocalDate date = entry.getKey();
-            DailyProgress progress = entry.getValue();
+    private void setRatio(ProgressRing ring, double ratio, boolean animate) {
+        if (!animate) {
+            animatingRings.remove(ring);
+            ring.jumpTo(ratio);
+            return;
+        }
+        ring.animateTo(ratio);
+        if (animatingRings.add(ring) && animatingRings.size() == 1) {
+            ringAnimator.start();
+        }
+    }
 
-            double newRatio = progress.getCompletionRatio();
-            previousRatios.put(date, newRatio);  // update immediately, no animation
+    // One day of the week strip; reused for whichever date it currently shows
+    private class DayCell {
+        final VBox box = new VBox(3);
+        final Label dayLabel = new Label();
+        final ProgressRing ring = new ProgressRing(20);
+        LocalDate date;
 
-            VBox dayBox = new VBox(3);
-            dayBox.setAlignment(Pos.CENTER);
-            dayBox.setPrefWidth(50);
+        DayCell() {
+            box.setAlignment(Pos.CENTER);
+            box.setPrefWidth(50);
 
-            Label dayLabel = new Label(date.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.getDefault()));
             dayLabel.setStyle("-fx-font-size: 12px;");
             dayLabel.setMaxWidth(Double.MAX_VALUE);
             dayLabel.setAlignment(Pos.CENTER);
 
-            StackPane circleStack = createProgressCircle(20, newRatio, String.valueOf(date.getDayOfMonth()));
-            circleStack.setMaxSize(44, 44);
-            circleStack.setPrefSize(44, 44);
-
-            Node shape = circleStack.getChildren().get(1);
-            if (!(shape instanceof Circle)) continue;
-            Circle arc = (Circle) shape;
-
-            if (date.equals(selectedDate)) {
-                circleStack.setStyle("-fx-border-color: #2196F3; -fx-border-width: 2px; -fx-border-radius: 50%;");
-            }
+            ring.stack.setMaxSize(44, 44);
+            ring.stack.setPrefSize(44, 44);
+            ring.stack.setOnMouseClicked(e -> select(date));
 
-            dateToProgressCircle.put(date, arc);
+            box.getChildren().addAll(dayLabel, ring.stack);
+        }
 
-            circleStack.setOnMouseClicked(e -> {
-                selectedDate = date;
-                initializePreviousRatios();
-                updateSmallDateCircles();
-                updateBigCircle();
-                if (dateSelectedListener != null) {
-                    dateSelectedListener.onDateSelected(selectedDate);
-                }
-            });
+        void show(LocalDate date, double ratio) {
+            this.date = date;
+            dayLabel.setText(date.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.getDefault()));
+            ring.text.setText(String.valueOf(date.getDayOfMonth()));
+            setRatio(ring, ratio, false);
+            updateSelection();
+        }
 
-            dayBox.getChildren().addAll(dayLabel, circleStack);
-            daysBox.getChildren().add(dayBox);
+        void updateSelection() {
+            ring.stack.setStyle(date.equals(selectedDate) ? SELECTED_STYLE : "");
         }
     }
 
-    private void updateBigCircle() {
-        DailyProgress selectedProgress = progressManager.getProgressForDate(selectedDate);
-        if (selectedProgress == null || selectedProgressCircle == null) return;
-
-        double currentRatio = selectedProgress.getCompletionRatio();
-
-        fullDateLabel.setText(selectedDate.getMonth() + " " + selectedDate.getDayOfMonth() + ", " + selectedDate.getYear());
-
-        double radius = selectedProgressCircle.getRadius();
-        double circumference = 2 * Math.PI * radius;
-
-        double offset = circumference * (1 - currentRatio);
-
-        selectedProgressCircle.setStrokeDashOffset(offset);
-        selectedProgressCircle.setStrokeLineCap(currentRatio <= 0.001 ? StrokeLineCap.BUTT : StrokeLineCap.ROUND);
+    // Background circle, progress arc (a dashed circle) and centered label
+    private static class ProgressRing {
+        final StackPane stack = new StackPane();
+        final Circle arc;
+        final Text text = new Text();
+        final double circumference;
+
+        double shownRatio;
+        double fromRatio;
+        double targetRatio;
+        long animationStart = -1;
+
+        ProgressRing(double radius) {
+            double strokeWidth = 6;
+            circumference = 2 * Math.PI * radius;
+
+            Circle background = new Circle(radius);
+            background.setFill(Color.TRANSPARENT);
+            background.setStroke(Color.LIGHTGRAY);
+            background.setStrokeWidth(strokeWidth);
+
+            arc = new Circle(radius);
+            arc.setFill(Color.TRANSPARENT);
+            arc.setStroke(Color.LIMEGREEN);
+            arc.setStrokeWidth(strokeWidth);
+            arc.setRotate(-90); // Start at top
+            arc.getStrokeDashArray().setAll(circumference, circumference);
+
+            text.setFill(Color.BLACK);
+            text.setFont(Font.font(12));
+
+            stack.getChildren().addAll(background, arc, text);
+            stack.setPrefSize(radius * 2 + strokeWidth, radius * 2 + strokeWidth);
+            apply(0);
+        }
 
-        previousRatios.put(selectedDate, currentRatio);
+        void jumpTo(double ratio) {
+            shownRatio = targetRatio = ratio;
+            animationStart = -1;
+            apply(ratio);
+        }
 
-        if (bigProgressStack.getChildren().size() > 2) {
-            Node textNode = bigProgressStack.getChildren().get(2);
-            if (textNode instanceof Text) {
-                ((Text) textNode).setText(selectedProgress.getCompletionPercentage() + "%");
-            }
+        void animateTo(double ratio) {
+            fromRatio = shownRatio;
+            targetRatio = ratio;
+            animationStart = -1;
         }
-    }
 
-    @Override
-    public void onProgressUpdated(LocalDate date) {
-        if (isInCurrentWeek(date)) {
-            updateSmallDateCircles();
-            if (date.equals(selectedDate)) {
-                updateBigCircle();
+        // Advances one frame; returns true once the target is reached
+        boolean step(long now) {
+            if (animationStart < 0) {
+                animationStart = now;
             }
-        } else if (date.equals(selectedDate)) {
-            updateBigCircle();
+            double t = Math.min(1, (double) (now - animationStart) / ANIMATION_NANOS);
+            double eased = 1 - (1 - t) * (1 - t);
+            shownRatio = fromRatio + (targetRatio - fromRatio) * eased;
+            apply(shownRatio);
+            return t >= 1;
         }
-    }
 
-    private boolean isInCurrentWeek(LocalDate date) {
-        return !date.isBefore(currentWeekStart) && date.isBefore(currentWeekStart.plusDays(7));
-    }
-
-    private StackPane createProgressCircle(double radius, double progressRatio, String centerText) {
-        double strokeWidth = 6;
-        double circumference = 2 * Math.PI * radius;
-
-        Circle background = new Circle(radius);
-        background.setFill(Color.TRANSPARENT);
-        background.setStroke(Color.LIGHTGRAY);
-        background.setStrokeWidth(strokeWidth);
-
-        Circle progressCircle = new Circle(radius);
-        progressCircle.setFill(Color.TRANSPARENT);
-        progressCircle.setStroke(Color.LIMEGREEN);
-        progressCircle.setStrokeWidth(strokeWidth);
-        progressCircle.setRotate(-90); // Start at top
-        progressCircle.setStrokeLineCap(progressRatio <= 0.001 ? StrokeLineCap.BUTT : StrokeLineCap.ROUND);
-        progressCircle.getStrokeDashArray().setAll(circumference, circumference);
-        progressCircle.setStrokeDashOffset(circumference * (1 - progressRatio));
-
-        Text text = new Text(centerText);
-        text.setFill(Color.BLACK);
-        text.setFont(Font.font(12));
-
-        StackPane stack = new StackPane();
-        stack.getChildren().addAll(background, progressCircle, text);
-        stack.setPrefSize(radius * 2 + strokeWidth, radius * 2 + strokeWidth);
-
-        return stack;
+        private void apply(double ratio) {
+            arc.setStrokeDashOffset(circumference * (1 - ratio));
+            arc.setStrokeLineCap(ratio <= 0.001 ? StrokeLineCap.BUTT : StrokeLineCap.ROUND);
+        }
     }
 
     public interface DateSelectedListener {
@@ -1,42 +1,72 @@
 package com.kontinuum.ui;
 
+import com.kontinuum.event.DomainEvent;
+import com.kontinuum.event.EventBus;
+import com.kontinuum.jfr.UiRebuildEvent;
+import com.kontinuum.metrics.MetricsRegistry;
+import com.kontinuum.metrics.Timer;
 import com.kontinuum.model.Mission;
 import com.kontinuum.model.ObjectiveCategory;
 import com.kontinuum.service.CategoryXpManager;
 import com.kontinuum.service.MissionManager;
 import javafx.animation.KeyFrame;
 import javafx.animation.Timeline;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.CacheHint;
+import javafx.scene.Node;
 import javafx.scene.control.*;
+import javafx.scene.effect.DropShadow;
 import javafx.scene.layout.*;
+import javafx.scene.paint.Color;
 import javafx.util.Duration;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.function.Consumer;
-
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Mission posters laid out in rows of {@value #COLUMNS}. Rows are ListView cells, so only the
+ * visible ones exist; posters are cached per mission id and updated in place, so accepting
+ * or completing a mission only touches that mission's buttons. The board refreshes from
+ * mission events, so changes made elsewhere (e.g. through the local API) show up too.
+ */
 public class MissionBoardScreen extends BorderPane {
+    private static final int COLUMNS = 5;
+    private static final Timer REFRESH_TIME = MetricsRegistry.getDefault().timer("ui.refreshMissions");
+    private static final double ROW_HEIGHT = 200;
+
+    // One shared effect instead of a CSS dropshadow parsed and allocated per poster
+    private static final DropShadow POSTER_SHADOW = new DropShadow(6, 0, 2, Color.rgb(0, 0, 0, 0.1));
 
     private final MissionManager missionManager;
     private final CategoryXpManager xpManager;
-    private final Consumer<Void> onXpUpdatedCallback;
-    private final GridPane missionGrid = new GridPane();
+    private final ObservableList<List<Mission>> missionRows = FXCollections.observableArrayList();
+    private final ListView<List<Mission>> missionRowsView = new ListView<>(missionRows);
+    // Keyed by mission id, which MissionManager keeps unique across the board
+    private final Map<String, MissionPoster> posters = new HashMap<>();
     private final Label countdownLabel = new Label();
 
-    public MissionBoardScreen(MissionManager missionManager, CategoryXpManager xpManager, Consumer<Void> onXpUpdatedCallback) {
+    public MissionBoardScreen(MissionManager missionManager, CategoryXpManager xpManager, EventBus eventBus) {
         this.missionManager = missionManager;
         this.xpManager = xpManager;
-        this.onXpUpdatedCallback = onXpUpdatedCallback;
 
+        getStylesheets().add(MissionBoardScreen.class.getResource("mission-board.css").toExternalForm());
+        getStyleClass().add("mission-board");
         setPadding(new Insets(20));
-        setStyle("-fx-background-color: #fdf6e3;");
 
         // Header with countdown timer
         HBox headerBox = new HBox();
         Label header = new Label("Mission Board");
-        header.setStyle("-fx-font-size: 24px; -fx-font-weight: bold; -fx-text-fill: #333;");
-        countdownLabel.setStyle("-fx-font-size: 14px; -fx-text-fill: #666;");
+        header.getStyleClass().add("mission-board-header");
+        countdownLabel.getStyleClass().add("mission-countdown");
 
         Region spacer = new Region();
         HBox.setHgrow(spacer, Priority.ALWAYS);
@@ -44,78 +74,144 @@ public class MissionBoardScreen extends BorderPane {
         headerBox.setAlignment(Pos.CENTER_LEFT);
         headerBox.getChildren().addAll(header, spacer, countdownLabel);
 
-        ScrollPane scrollPane = new ScrollPane(missionGrid);
-        scrollPane.setFitToWidth(true);
-        scrollPane.setStyle("-fx-background-color: transparent;");
+        missionRowsView.setCellFactory(view -> new MissionRowCell());
+        missionRowsView.setFixedCellSize(ROW_HEIGHT);
+        missionRowsView.setFocusTraversable(false);
 
         setTop(headerBox);
-        setCenter(scrollPane);
+        setCenter(missionRowsView);
 
         refreshMissions();
+        eventBus.subscribe(DomainEvent.MissionStateChanged.class, changes -> refreshMissions());
         startCountdownTimer();
     }
 
+    /**
+     * Brings the board in line with the mission list: posters of existing missions are
+     * updated in place, posters of removed missions are dropped, and the rows are only
+     * replaced when the set or order of missions changed.
+     */
     public void refreshMissions() {
-        missionGrid.getChildren().clear();
-        missionGrid.setHgap(20);
-        missionGrid.setVgap(20);
-        missionGrid.setPadding(new Insets(10));
-        missionGrid.setAlignment(Pos.CENTER);
-
+        UiRebuildEvent event = new UiRebuildEvent();
+        event.begin();
+        long begin = REFRESH_TIME.start();
         List<Mission> missions = missionManager.getAllMissions();
-        int columns = 5;
-        int row = 0;
-        int col = 0;
 
+        Set<String> liveIds = new HashSet<>();
         for (Mission mission : missions) {
-            VBox poster = createMissionPoster(mission);
-            missionGrid.add(poster, col, row);
-            col++;
-            if (col >= columns) {
-                col = 0;
-                row++;
+            liveIds.add(mission.id);
+            MissionPoster poster = posters.get(mission.id);
+            if (poster != null) {
+                poster.update(mission);
+            }
+        }
+        posters.keySet().retainAll(liveIds);
+
+        List<List<Mission>> rows = new ArrayList<>();
+        for (int i = 0; i < missions.size(); i += COLUMNS) {
+            rows.add(new ArrayList<>(missions.subList(i, Math.min(i + COLUMNS, missions.size()))));
+        }
+        if (!sameLayout(missionRows, rows)) {
+            missionRows.setAll(rows);
+        }
+        REFRESH_TIME.stop(begin);
+        event.commit("ui.refreshMissions", missions.size());
+    }
+
+    private static boolean sameLayout(List<List<Mission>> current, List<List<Mission>> updated) {
+        if (current.size() != updated.size()) return false;
+        for (int row = 0; row < current.size(); row++) {
+            List<Mission> a = current.get(row);
+            List<Mission> b = updated.get(row);
+            if (a.size() != b.size()) return false;
+            for (int i = 0; i < a.size(); i++) {
+                if (!Objects.equals(a.get(i).id, b.get(i).id)) return false;
             }
         }
+        return true;
     }
 
-    private VBox createMissionPoster(Mission mission) {
-        VBox box = new VBox(8);
-        box.setPadding(new Insets(12));
-        box.setAlignment(Pos.TOP_CENTER);
-        box.setPrefSize(200, 180);
-        box.setStyle("-fx-border-color: #c29d52; -fx-border-width: 2px; -fx-background-color: #fff8dc;" +
-                "-fx-background-radius: 8; -fx-border-radius: 8; -fx-effect: dropshadow(three-pass-box, rgba(0,0,0,0.1), 6, 0, 0, 2);");
-
-        Label title = new Label(mission.title);
-        title.setStyle("-fx-font-size: 14px; -fx-font-weight: bold; -fx-text-fill: #5c3b1e;");
-        title.setWrapText(true);
-
-        Label category = new Label("Type: " + mission.category);
-        Label rarity = new Label("Rarity: " + mission.rarity.name);
-        Label reward = new Label("XP: " + mission.xpReward);
-
-        Button acceptBtn = new Button(mission.isAccepted ? "Accepted" : "Accept");
-        acceptBtn.setDisable(mission.isAccepted || mission.isCompleted);
-        acceptBtn.setOnAction(e -> {
-            missionManager.acceptMission(mission);
-            refreshMissions();
-        });
-
-        Button completeBtn = new Button("Complete");
-        completeBtn.setDisable(!mission.isAccepted || mission.isCompleted);
-        completeBtn.setOnAction(e -> {
-            missionManager.completeMission(mission);
-            awardXpForMission(mission);
-            refreshMissions();
-            onXpUpdatedCallback.accept(null);
-        });
-
-        box.getChildren().addAll(title, category, rarity, reward, acceptBtn, completeBtn);
-        return box;
+    private MissionPoster posterFor(Mission mission) {
+        MissionPoster poster = posters.get(mission.id);
+        if (poster == null) {
+            poster = new MissionPoster(mission);
+            posters.put(mission.id, poster);
+        }
+        return poster;
+    }
+
+    private class MissionRowCell extends ListCell<List<Mission>> {
+        private final HBox row = new HBox(20);
+
+        MissionRowCell() {
+            row.setAlignment(Pos.CENTER);
+        }
+
+        @Override
+        protected void updateItem(List<Mission> missions, boolean empty) {
+            super.updateItem(missions, empty);
+            setText(null);
+            if (empty || missions == null) {
+                row.getChildren().clear();
+                setGraphic(null);
+                return;
+            }
+            List<Node> rowPosters = new ArrayList<>(missions.size());
+            for (Mission mission : missions) {
+                rowPosters.add(posterFor(mission));
+            }
+            row.getChildren().setAll(rowPosters);
+            setGraphic(row);
+        }
+    }
+
+    // Static text is set once; update() only touches the state-dependent buttons
+    private class MissionPoster extends VBox {
+        private final Button acceptBtn = new Button();
+        private final Button completeBtn = new Button("Complete");
+        private Mission mission;
+
+        MissionPoster(Mission mission) {
+            super(8);
+            getStyleClass().add("mission-poster");
+            setAlignment(Pos.TOP_CENTER);
+            setPrefSize(200, 180);
+            setEffect(POSTER_SHADOW);
+            // Render the poster and its shadow to a bitmap once; redrawn only when a button changes
+            setCache(true);
+            setCacheHint(CacheHint.SPEED);
+
+            Label title = new Label(mission.title);
+            title.getStyleClass().add("mission-title");
+            title.setWrapText(true);
+
+            Label category = new Label("Type: " + mission.category);
+            Label rarity = new Label("Rarity: " + mission.rarity.name);
+            Label reward = new Label("XP: " + mission.xpReward);
+
+            // The board and the XP labels update from the events these publish
+            acceptBtn.setOnAction(e -> missionManager.acceptMission(this.mission));
+
+            completeBtn.setOnAction(e -> {
+                if (missionManager.completeMission(this.mission)) {
+                    awardXpForMission(this.mission);
+                }
+            });
+
+            getChildren().addAll(title, category, rarity, reward, acceptBtn, completeBtn);
+            update(mission);
+        }
+
+        void update(Mission mission) {
+            this.mission = mission;
+            acceptBtn.setText(mission.isAccepted ? "Accepted" : "Accept");
+            acceptBtn.setDisable(mission.isAccepted || mission.isCompleted);
+            completeBtn.setDisable(!mission.isAccepted || mission.isCompleted);
+        }
     }
 
     private void awardXpForMission(Mission mission) {
-        ObjectiveCategory categoryEnum = mapMissionCategoryToObjectiveCategory(mission.category);
+        ObjectiveCategory categoryEnum = MissionManager.xpCategoryFor(mission.category);
         if (categoryEnum != null) {
             xpManager.addXp(categoryEnum, mission.xpReward);
         } else {
@@ -123,22 +219,6 @@ public class MissionBoardScreen extends BorderPane {
         }
     }
 
-    private ObjectiveCategory mapMissionCategoryToObjectiveCategory(String missionCategory) {
-        switch (missionCategory.toLowerCase()) {
-            case "fitness":
-            case "health":
-                return ObjectiveCategory.HEALTH;
-            case "learning":
-            case "creative":
-            case "focus":
-                return ObjectiveCategory.PRODUCTION;
-            case "social":
-                return ObjectiveCategory.RAPPING;
-            default:
-                return null;
-        }
-    }
-
     private void startCountdownTimer() {
         Timeline timeline = new Timeline(new KeyFrame(Duration.seconds(1), e -> updateCountdown()));
         timeline.setCycleCount(Timeline.INDEFINITE);
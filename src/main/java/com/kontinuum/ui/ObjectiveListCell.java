@@ -0,0 +1,49 @@
+package com.kontinuum.ui;
+
+import com.kontinuum.model.Objective;
+import javafx.scene.control.CheckBox;
+import javafx.scene.control.ListCell;
+
+import java.time.LocalDate;
+import java.util.function.Supplier;
+
+/**
+ * Row of the objectives list: one CheckBox, reused for whichever objective the ListView
+ * assigns to this cell. Only the visible rows exist, so changing the date just re-binds them.
+ */
+public class ObjectiveListCell extends ListCell<Objective> {
+
+    public interface ToggleHandler {
+        void onToggle(Objective objective, LocalDate date, boolean completed);
+    }
+
+    private final CheckBox checkBox = new CheckBox();
+    private final Supplier<LocalDate> selectedDate;
+
+    public ObjectiveListCell(Supplier<LocalDate> selectedDate, ToggleHandler toggleHandler) {
+        this.selectedDate = selectedDate;
+
+        checkBox.setOnAction(e -> {
+            Objective objective = getItem();
+            if (objective == null) return;
+
+            LocalDate date = selectedDate.get();
+            toggleHandler.onToggle(objective, date, checkBox.isSelected());
+            // Re-read the model so a rejected toggle snaps back
+            checkBox.setSelected(objective.isCompleted(date));
+        });
+    }
+
+    @Override
+    protected void updateItem(Objective objective, boolean empty) {
+        super.updateItem(objective, empty);
+        setText(null);
+        if (empty || objective == null) {
+            setGraphic(null);
+            return;
+        }
+        checkBox.setText(objective.getDescription());
+        checkBox.setSelected(objective.isCompleted(selectedDate.get()));
+        setGraphic(checkBox);
+    }
+}